@@ -1,5 +1,7 @@
 package top.crossoverjie.cicada.server.action.param;
 
+import io.netty.util.Recycler;
+
 import java.util.HashMap;
 
 /**
@@ -11,6 +13,42 @@ import java.util.HashMap;
  */
 public class ParamMap extends HashMap<String,Object> implements Param {
 
+    private static final Recycler<ParamMap> RECYCLER = new Recycler<ParamMap>() {
+        @Override
+        protected ParamMap newObject(Handle<ParamMap> handle) {
+            return new ParamMap(handle);
+        }
+    };
+
+    /**
+     * null when created with the constructor
+     */
+    private final transient Recycler.Handle<ParamMap> handle;
+
+    public ParamMap() {
+        this.handle = null;
+    }
+
+    private ParamMap(Recycler.Handle<ParamMap> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * @return an empty map from the pool of the current thread
+     */
+    public static ParamMap newInstance() {
+        return RECYCLER.get();
+    }
+
+    /**
+     * clear the map and return it to its pool, it must not be used afterwards
+     */
+    public void recycle() {
+        clear();
+        if (handle != null) {
+            handle.recycle(this);
+        }
+    }
 
 
     @Override
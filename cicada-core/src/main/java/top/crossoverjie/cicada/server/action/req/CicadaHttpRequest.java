@@ -1,10 +1,16 @@
 package top.crossoverjie.cicada.server.action.req;
 
-import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
-import top.crossoverjie.cicada.server.constant.CicadaConstant;
+import io.netty.util.Recycler;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,54 +22,95 @@ import java.util.Map;
  */
 public class CicadaHttpRequest implements CicadaRequest {
 
+    private static final Recycler<CicadaHttpRequest> RECYCLER = new Recycler<CicadaHttpRequest>() {
+        @Override
+        protected CicadaHttpRequest newObject(Handle<CicadaHttpRequest> handle) {
+            return new CicadaHttpRequest(handle);
+        }
+    };
+
+    private final Recycler.Handle<CicadaHttpRequest> handle;
+
     private String method ;
 
     private String url ;
 
+    /**
+     * resolved from remoteAddress on first access
+     */
     private String clientAddress ;
+    private SocketAddress remoteAddress ;
 
+    /**
+     * decoded on first access
+     */
     private Map<String,Cookie> cookie = new HashMap<>(8) ;
-    private Map<String,String> headers = new HashMap<>(8) ;
+    private boolean cookieDecoded ;
 
-    private CicadaHttpRequest(){}
+    /**
+     * headers of the netty request, read in place
+     */
+    private HttpHeaders httpHeaders ;
 
-    public static CicadaHttpRequest init(DefaultHttpRequest httpRequest){
-        CicadaHttpRequest request = new CicadaHttpRequest() ;
-        request.method = httpRequest.method().name();
-        request.url = httpRequest.uri();
+    /**
+     * created on first access, path and parameters are decoded lazily by netty as well
+     */
+    private QueryStringDecoder queryStringDecoder ;
+
+    private String[] pathVariableNames ;
+    private String[] pathVariableValues ;
 
-        //build headers
-        buildHeaders(httpRequest, request);
+    private RequestBody body = RequestBody.empty() ;
 
-        //initBean cookies
-        initCookies(request);
+    private CicadaHttpRequest(Recycler.Handle<CicadaHttpRequest> handle){
+        this.handle = handle;
+    }
 
+    public static CicadaHttpRequest init(HttpRequest httpRequest){
+        CicadaHttpRequest request = RECYCLER.get() ;
+        request.method = httpRequest.method().name();
+        request.url = httpRequest.uri();
+        request.httpHeaders = httpRequest.headers();
         return request ;
     }
 
     /**
-     * build headers
-     * @param httpRequest io.netty.httprequest
-     * @param request cicada request
+     * @param httpRequest netty request
+     * @param queryStringDecoder decoder the route was matched with
+     * @return request from the pool of the current thread
      */
-    private static void buildHeaders(DefaultHttpRequest httpRequest, CicadaHttpRequest request) {
-        for (Map.Entry<String, String> entry : httpRequest.headers().entries()) {
-            request.headers.put(entry.getKey(),entry.getValue());
-        }
+    public static CicadaHttpRequest init(HttpRequest httpRequest, QueryStringDecoder queryStringDecoder){
+        CicadaHttpRequest request = init(httpRequest) ;
+        request.queryStringDecoder = queryStringDecoder;
+        return request ;
     }
 
     /**
-     * initBean cookies
-     * @param request request
+     * clear the request and return it to the pool of the current thread,
+     * it must not be used afterwards
      */
-    private static void initCookies(CicadaHttpRequest request) {
-        for (Map.Entry<String, String> entry : request.headers.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-            if (!key.equals(CicadaConstant.ContentType.COOKIE)){
-                continue;
-            }
+    public void recycle(){
+        method = null;
+        url = null;
+        clientAddress = null;
+        remoteAddress = null;
+        // clear() keeps the table of the map for the next request
+        cookie.clear();
+        cookieDecoded = false;
+        httpHeaders = null;
+        queryStringDecoder = null;
+        pathVariableNames = null;
+        pathVariableValues = null;
+        body = RequestBody.empty();
+        handle.recycle(this);
+    }
 
+    /**
+     * decode the Cookie headers, only when a cookie is read
+     */
+    private void decodeCookies() {
+        cookieDecoded = true;
+        for (String value : httpHeaders.getAll(HttpHeaderNames.COOKIE)) {
             for (io.netty.handler.codec.http.cookie.Cookie cookie : ServerCookieDecoder.LAX.decode(value)) {
                 Cookie cicadaCookie = new Cookie() ;
                 cicadaCookie.setName(cookie.name());
@@ -71,11 +118,21 @@ public class CicadaHttpRequest implements CicadaRequest {
                 cicadaCookie.setDomain(cookie.domain());
                 cicadaCookie.setMaxAge(cookie.maxAge());
                 cicadaCookie.setPath(cookie.path()) ;
-                request.cookie.put(cicadaCookie.getName(),cicadaCookie) ;
+                this.cookie.put(cicadaCookie.getName(),cicadaCookie) ;
             }
         }
     }
 
+    /**
+     * @return decoder of the request uri, decodes the uri once
+     */
+    public QueryStringDecoder queryStringDecoder() {
+        if (queryStringDecoder == null) {
+            queryStringDecoder = new QueryStringDecoder(url);
+        }
+        return queryStringDecoder;
+    }
+
     @Override
     public String getMethod() {
         return this.method;
@@ -88,6 +145,69 @@ public class CicadaHttpRequest implements CicadaRequest {
 
     @Override
     public Cookie getCookie(String key) {
+        if (!cookieDecoded) {
+            decodeCookies();
+        }
         return cookie.get(key) ;
     }
+
+    @Override
+    public String getHeader(String name) {
+        return httpHeaders.get(name) ;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        List<String> values = queryStringDecoder().parameters().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public String getClientAddress() {
+        if (clientAddress == null && remoteAddress instanceof InetSocketAddress) {
+            InetSocketAddress address = (InetSocketAddress) remoteAddress;
+            clientAddress = address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+        }
+        return clientAddress;
+    }
+
+    /**
+     * set by the dispatcher
+     * @param remoteAddress address of the connection
+     */
+    public void setRemoteAddress(SocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    @Override
+    public String getPathVariable(String name) {
+        if (pathVariableNames == null) {
+            return null;
+        }
+        for (int i = 0; i < pathVariableNames.length; i++) {
+            if (pathVariableNames[i].equals(name)) {
+                return pathVariableValues[i];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public RequestBody getBody() {
+        return body;
+    }
+
+    public void setBody(RequestBody body) {
+        this.body = body;
+    }
+
+    /**
+     * set by the router after matching
+     * @param names variable names of the route
+     * @param values values of the request path
+     */
+    public void setPathVariables(String[] names, String[] values) {
+        this.pathVariableNames = names;
+        this.pathVariableValues = values;
+    }
 }
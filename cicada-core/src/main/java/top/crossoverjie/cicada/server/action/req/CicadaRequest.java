@@ -28,5 +28,38 @@ public interface CicadaRequest {
      */
     Cookie getCookie(String key) ;
 
+    /**
+     * get request header
+     * @param name header name, case insensitive
+     * @return first value or null
+     */
+    String getHeader(String name) ;
+
+    /**
+     * get query parameter, the query string is decoded on first use
+     * @param name parameter name
+     * @return first value or null
+     */
+    String getParameter(String name) ;
+
+    /**
+     * get client ip of the connection, proxies are not taken into account
+     * @return ip or null when unknown
+     */
+    String getClientAddress() ;
+
+    /**
+     * get path variable declared like @CicadaRoute("user/{id}")
+     * @param name variable name, * for the wildcard
+     * @return value or null
+     */
+    String getPathVariable(String name) ;
+
+    /**
+     * get request body, in memory or spilled to a temp file when it is large
+     * @return body, empty when the request has none
+     */
+    RequestBody getBody() ;
+
 
 }
@@ -0,0 +1,188 @@
+package top.crossoverjie.cicada.server.action.req;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Function: body of a http request.
+ *
+ * Chunks are kept in a composite of pooled buffers up to the memory threshold, a larger
+ * body is spilled to a temp file, so an upload never holds more than the threshold in memory.
+ * Released by the dispatcher once the request is done.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class RequestBody implements Closeable {
+
+    private static final RequestBody EMPTY = new RequestBody(0, 0);
+
+    private final int memoryThreshold;
+
+    private final long maxSize;
+
+    private long size;
+
+    private CompositeByteBuf memory;
+
+    private Path file;
+
+    private FileChannel fileChannel;
+
+    public RequestBody(int memoryThreshold, long maxSize) {
+        this.memoryThreshold = memoryThreshold;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return shared body of a request without content
+     */
+    public static RequestBody empty() {
+        return EMPTY;
+    }
+
+    /**
+     * append a chunk, the caller keeps its reference
+     *
+     * @param chunk content of a HttpContent
+     * @return false when the body exceeds the max size, the body is released then
+     * @throws IOException write temp file failed
+     */
+    public boolean append(ByteBuf chunk) throws IOException {
+        int length = chunk.readableBytes();
+        if (length == 0) {
+            return true;
+        }
+        if (size + length > maxSize) {
+            close();
+            return false;
+        }
+        size += length;
+
+        if (fileChannel == null && size <= memoryThreshold) {
+            if (memory == null) {
+                memory = ByteBufAllocator.DEFAULT.compositeBuffer(64);
+            }
+            memory.addComponent(true, chunk.retainedSlice());
+            return true;
+        }
+
+        if (fileChannel == null) {
+            spill();
+        }
+        write(chunk.nioBuffers());
+        return true;
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("cicada-body-", ".tmp");
+        fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (memory != null) {
+            write(memory.nioBuffers());
+            memory.release();
+            memory = null;
+        }
+    }
+
+    private void write(ByteBuffer[] buffers) throws IOException {
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return body length in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return false when the body was spilled to disk
+     */
+    public boolean isInMemory() {
+        return fileChannel == null;
+    }
+
+    /**
+     * @return a new stream over the whole body
+     * @throws IOException open temp file failed
+     */
+    public InputStream inputStream() throws IOException {
+        if (fileChannel != null) {
+            return Files.newInputStream(file);
+        }
+        return new ByteBufInputStream(memory == null ? Unpooled.EMPTY_BUFFER : memory.duplicate());
+    }
+
+    /**
+     * @return a new channel over the whole body
+     * @throws IOException open temp file failed
+     */
+    public ReadableByteChannel channel() throws IOException {
+        if (fileChannel != null) {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        }
+        return Channels.newChannel(inputStream());
+    }
+
+    /**
+     * @return the in memory body, null when spilled, must not be released by the caller
+     */
+    public ByteBuf content() {
+        if (fileChannel != null) {
+            return null;
+        }
+        return memory == null ? Unpooled.EMPTY_BUFFER : memory;
+    }
+
+    /**
+     * decode the whole body
+     * @param charset charset
+     * @return text
+     * @throws IOException read temp file failed
+     */
+    public String toString(Charset charset) throws IOException {
+        if (fileChannel != null) {
+            return new String(Files.readAllBytes(file), charset);
+        }
+        return memory == null ? "" : memory.toString(charset);
+    }
+
+    @Override
+    public void close() {
+        if (this == EMPTY) {
+            return;
+        }
+        ReferenceCountUtil.release(memory);
+        memory = null;
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // temp dir is cleaned by the OS
+            }
+            fileChannel = null;
+            file = null;
+        }
+    }
+}
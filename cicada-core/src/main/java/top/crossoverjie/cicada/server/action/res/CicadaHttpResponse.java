@@ -1,14 +1,22 @@
 package top.crossoverjie.cicada.server.action.res;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
+import io.netty.util.Recycler;
+import io.netty.util.ReferenceCountUtil;
 import top.crossoverjie.cicada.server.action.req.Cookie;
 import top.crossoverjie.cicada.server.constant.CicadaConstant;
 import top.crossoverjie.cicada.server.exception.CicadaException;
+import top.crossoverjie.cicada.server.util.BodyUtil;
+
+import java.nio.charset.StandardCharsets;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Function:
@@ -19,23 +27,67 @@ import java.util.Map;
  */
 public class CicadaHttpResponse implements CicadaResponse {
 
+    private static final Recycler<CicadaHttpResponse> RECYCLER = new Recycler<CicadaHttpResponse>() {
+        @Override
+        protected CicadaHttpResponse newObject(Handle<CicadaHttpResponse> handle) {
+            return new CicadaHttpResponse(handle);
+        }
+    };
+
+    private final Recycler.Handle<CicadaHttpResponse> handle;
+
     private Map<String, String> headers = new HashMap<>(8);
 
+    private int status = 200;
+
     private String contentType;
 
-    private String httpContent;
+    private ByteBuf httpContent;
 
     private List<io.netty.handler.codec.http.cookie.Cookie> cookies = new ArrayList<>(6);
 
-    private CicadaHttpResponse() {
+    /**
+     * sends the headers and opens the chunked body, set by the dispatcher
+     */
+    private Supplier<ResponseStream> streamOpener;
+
+    private ResponseStream stream;
+
+    private CicadaHttpResponse(Recycler.Handle<CicadaHttpResponse> handle) {
+        this.handle = handle;
     }
 
     public static CicadaHttpResponse init() {
-        CicadaHttpResponse response = new CicadaHttpResponse();
+        CicadaHttpResponse response = RECYCLER.get();
         response.contentType = CicadaConstant.ContentType.TEXT;
         return response;
     }
 
+    /**
+     * clear the response and return it to the pool of the current thread, it must not be used afterwards.
+     * The body is not released, it belongs to the written response.
+     */
+    public void recycle() {
+        headers.clear();
+        cookies.clear();
+        status = 200;
+        contentType = null;
+        httpContent = null;
+        streamOpener = null;
+        stream = null;
+        handle.recycle(this);
+    }
+
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
     @Override
     public void setContentType(String contentType) {
         this.contentType = contentType;
@@ -47,13 +99,51 @@ public class CicadaHttpResponse implements CicadaResponse {
     }
 
     @Override
-    public void setHttpContent(String content) {
-        httpContent = content;
+    public void setHttpContent(CharSequence content) {
+        setHttpContent(content == null ? null : BodyUtil.utf8(content));
+    }
+
+    @Override
+    public void setHttpContent(byte[] content) {
+        setHttpContent(content == null ? null : Unpooled.wrappedBuffer(content));
+    }
+
+    @Override
+    public void setHttpContent(ByteBuf content) {
+        // release the body being replaced, e.g. by the exception handler
+        ReferenceCountUtil.release(this.httpContent);
+        this.httpContent = content;
     }
 
     @Override
     public String getHttpContent() {
-        return this.httpContent == null ? "" : this.httpContent;
+        return this.httpContent == null ? "" : this.httpContent.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ByteBuf content() {
+        return this.httpContent;
+    }
+
+    @Override
+    public ResponseStream stream() {
+        if (stream != null) {
+            return stream;
+        }
+        if (streamOpener == null) {
+            throw new CicadaException("Streaming is not supported by this response");
+        }
+        stream = streamOpener.get();
+        return stream;
+    }
+
+    @Override
+    public ResponseStream getStream() {
+        return stream;
+    }
+
+    public void setStreamOpener(Supplier<ResponseStream> streamOpener) {
+        this.streamOpener = streamOpener;
     }
 
     public void setHeaders(String key, String value) {
@@ -1,5 +1,6 @@
 package top.crossoverjie.cicada.server.action.res;
 
+import io.netty.buffer.ByteBuf;
 import top.crossoverjie.cicada.server.action.req.Cookie;
 
 import java.util.List;
@@ -21,6 +22,18 @@ public interface CicadaResponse {
     Map<String, String> getHeaders();
 
 
+    /**
+     * set http status, 200 by default
+     * @param status status code
+     */
+    void setStatus(int status);
+
+    /**
+     * get http status
+     * @return status code
+     */
+    int getStatus();
+
     /**
      * set content type
      * @param contentType
@@ -34,17 +47,48 @@ public interface CicadaResponse {
     String getContentType();
 
     /**
-     * set http body
+     * set http body, UTF-8 encoded into a pooled buffer
      * @param content
      */
-    void setHttpContent(String content);
+    void setHttpContent(CharSequence content);
 
     /**
-     * get http body
+     * set http body without copying
+     * @param content
+     */
+    void setHttpContent(byte[] content);
+
+    /**
+     * set http body, the response takes ownership of the buffer
+     * @param content
+     */
+    void setHttpContent(ByteBuf content);
+
+    /**
+     * get http body, decoded as UTF-8
      * @return
      */
     String getHttpContent();
 
+    /**
+     * get http body buffer
+     * @return null when no body is set
+     */
+    ByteBuf content();
+
+    /**
+     * switch to a chunked body, the headers are sent at this point.
+     * Only allowed for routes running on a worker or virtual thread.
+     * @return stream of the body, closed by the dispatcher when the action returns
+     */
+    ResponseStream stream();
+
+    /**
+     * get the chunked body
+     * @return null when the response is not streamed
+     */
+    ResponseStream getStream();
+
 
     /**
      * set cookie
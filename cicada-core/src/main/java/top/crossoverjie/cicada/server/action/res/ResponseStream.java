@@ -0,0 +1,245 @@
+package top.crossoverjie.cicada.server.action.res;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Function: chunked response body written while the action produces it.
+ *
+ * Writes are buffered into chunks of {@link #CHUNK_SIZE} bytes and handed to the
+ * ChunkedWriteHandler through a bounded queue. The handler only pulls chunks while the
+ * channel is writable, so a slow client blocks the producing thread once
+ * {@link #MAX_PENDING_CHUNKS} chunks are queued instead of growing the heap.
+ * Must be used from a worker or virtual thread, never from an event loop.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ResponseStream implements Closeable {
+
+    public static final int CHUNK_SIZE = 8 * 1024;
+
+    public static final int MAX_PENDING_CHUNKS = 16;
+
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Channel channel;
+
+    private final ChunkedWriteHandler chunkedWriteHandler;
+
+    private final BlockingQueue<ByteBuf> queue = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS);
+
+    private final Input input = new Input();
+
+    /**
+     * chunk being filled by the producer
+     */
+    private ByteBuf current;
+
+    private volatile boolean closed;
+
+    public ResponseStream(Channel channel, ChunkedWriteHandler chunkedWriteHandler) {
+        this.channel = channel;
+        this.chunkedWriteHandler = chunkedWriteHandler;
+    }
+
+    /**
+     * @return the input pulled by ChunkedWriteHandler
+     */
+    public ChunkedInput<ByteBuf> input() {
+        return input;
+    }
+
+    /**
+     * write UTF-8 text
+     * @param content text
+     * @throws IOException the client went away
+     */
+    public void write(CharSequence content) throws IOException {
+        ensureOpen();
+        ensureCurrent(ByteBufUtil.utf8MaxBytes(content));
+        ByteBufUtil.writeUtf8(current, content);
+        flushIfFull();
+    }
+
+    /**
+     * write bytes
+     * @param content bytes
+     * @throws IOException the client went away
+     */
+    public void write(byte[] content) throws IOException {
+        write(Unpooled.wrappedBuffer(content));
+    }
+
+    /**
+     * write a buffer, the stream takes ownership of it
+     * @param content buffer
+     * @throws IOException the client went away
+     */
+    public void write(ByteBuf content) throws IOException {
+        try {
+            ensureOpen();
+            ensureCurrent(content.readableBytes());
+            current.writeBytes(content);
+        } finally {
+            content.release();
+        }
+        flushIfFull();
+    }
+
+    /**
+     * send the buffered bytes as a chunk now
+     * @throws IOException the client went away
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        if (current != null && current.isReadable()) {
+            ByteBuf chunk = current;
+            current = null;
+            offer(chunk);
+        }
+    }
+
+    /**
+     * send the last chunk, called by the dispatcher when the action returns
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (IOException e) {
+            // the client went away, nothing left to finish
+        }
+        closed = true;
+        // always resume, the handler may have suspended right before closed was set
+        input.waiting.set(false);
+        chunkedWriteHandler.resumeTransfer();
+    }
+
+    /**
+     * stop the stream and drop the connection so the client sees a truncated body
+     */
+    public void abort() {
+        closed = true;
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+        channel.close();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Response stream is closed");
+        }
+        if (!channel.isActive()) {
+            throw new IOException("Connection closed by peer");
+        }
+    }
+
+    private void ensureCurrent(int length) {
+        if (current == null) {
+            current = ALLOCATOR.buffer(Math.max(CHUNK_SIZE, length));
+        }
+    }
+
+    private void flushIfFull() throws IOException {
+        if (current.readableBytes() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * block while the queue is full, that is while the client does not keep up
+     */
+    private void offer(ByteBuf chunk) throws IOException {
+        try {
+            while (!queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!channel.isActive()) {
+                    chunk.release();
+                    throw new IOException("Connection closed by peer");
+                }
+            }
+        } catch (InterruptedException e) {
+            chunk.release();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing response", e);
+        }
+        resume();
+    }
+
+    private void resume() {
+        if (input.waiting.getAndSet(false)) {
+            chunkedWriteHandler.resumeTransfer();
+        }
+    }
+
+    private final class Input implements ChunkedInput<ByteBuf> {
+
+        /**
+         * set when the handler found the queue empty and waits for resumeTransfer()
+         */
+        private final AtomicBoolean waiting = new AtomicBoolean();
+
+        private long progress;
+
+        @Override
+        public boolean isEndOfInput() {
+            return closed && queue.isEmpty();
+        }
+
+        @Override
+        public void close() {
+            ByteBuf chunk;
+            while ((chunk = queue.poll()) != null) {
+                chunk.release();
+            }
+        }
+
+        @Override
+        @Deprecated
+        public ByteBuf readChunk(io.netty.channel.ChannelHandlerContext ctx) {
+            return readChunk(ctx.alloc());
+        }
+
+        @Override
+        public ByteBuf readChunk(ByteBufAllocator allocator) {
+            // mark waiting before polling, a producer offering in between resumes the transfer
+            waiting.set(true);
+            ByteBuf chunk = queue.poll();
+            if (chunk != null) {
+                waiting.set(false);
+                progress += chunk.readableBytes();
+            }
+            return chunk;
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public long progress() {
+            return progress;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package top.crossoverjie.cicada.server.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Function: cache the encoded body of a GET route, a hit skips the route and the serialization.
+ * Only 200 responses without cookies are cached, interceptors still run on every request.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable {
+
+    /**
+     * milliseconds an entry is served
+     */
+    long ttl() default 60000 ;
+
+    /**
+     * query parameters which are part of the key, the path always is
+     */
+    String[] keys() default {} ;
+}
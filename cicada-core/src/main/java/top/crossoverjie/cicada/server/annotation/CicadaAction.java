@@ -9,4 +9,9 @@ import java.lang.annotation.*;
 public @interface CicadaAction {
 
     String value() default "" ;
+
+    /**
+     * bulkhead of all routes of the action, sized by [cicada.bulkhead.name.threads] and [cicada.bulkhead.name.queue.size]
+     */
+    String bulkhead() default "" ;
 }
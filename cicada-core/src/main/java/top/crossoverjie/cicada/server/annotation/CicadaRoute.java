@@ -1,6 +1,9 @@
 package top.crossoverjie.cicada.server.annotation;
 
 
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.Priority;
+
 import java.lang.annotation.*;
 
 @Target(ElementType.METHOD)
@@ -9,4 +12,25 @@ import java.lang.annotation.*;
 public @interface CicadaRoute {
 
     String value() default "" ;
+
+    /**
+     * where the action runs, DEFAULT follows [cicada.execution.mode]
+     */
+    ExecutionMode mode() default ExecutionMode.DEFAULT ;
+
+    /**
+     * run in the named bulkhead instead of the executor of {@link #mode()},
+     * empty follows {@link CicadaAction#bulkhead()}
+     */
+    String bulkhead() default "" ;
+
+    /**
+     * order of the route while it waits in the worker pool or its bulkhead
+     */
+    Priority priority() default Priority.NORMAL ;
+
+    /**
+     * milliseconds the route may take before 504 is answered, 0 follows [cicada.request.timeout], -1 disables it
+     */
+    long timeout() default 0 ;
 }
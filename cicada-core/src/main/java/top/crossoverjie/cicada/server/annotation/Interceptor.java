@@ -7,4 +7,15 @@ import java.lang.annotation.*;
 @Documented
 public @interface Interceptor {
     int order() default 0 ;
+
+    /**
+     * route patterns relative to [cicada.root.path], e.g. "/routeAction/**", empty for all routes.
+     * * matches one segment and ** any number of segments
+     */
+    String[] include() default {} ;
+
+    /**
+     * route patterns the interceptor is not applied to, checked after include
+     */
+    String[] exclude() default {} ;
 }
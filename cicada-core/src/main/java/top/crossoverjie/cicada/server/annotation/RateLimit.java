@@ -0,0 +1,32 @@
+package top.crossoverjie.cicada.server.annotation;
+
+import top.crossoverjie.cicada.server.enums.RateLimitKey;
+
+import java.lang.annotation.*;
+
+/**
+ * limit the request rate of a route, on an action it applies to each of its routes.
+ * Requests over the limit are answered with 429 before any interceptor or the route runs.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+
+    /**
+     * sustained rate of each bucket
+     */
+    double permitsPerSecond() ;
+
+    /**
+     * requests a full bucket lets through at once, the rate rounded up when not set
+     */
+    int burst() default 0 ;
+
+    RateLimitKey key() default RateLimitKey.ROUTE ;
+
+    /**
+     * header or cookie name for RateLimitKey.HEADER and RateLimitKey.COOKIE
+     */
+    String name() default "" ;
+}
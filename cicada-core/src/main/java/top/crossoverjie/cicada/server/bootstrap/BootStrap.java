@@ -3,7 +3,12 @@ package top.crossoverjie.cicada.server.bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
@@ -15,8 +20,13 @@ import top.crossoverjie.cicada.server.configuration.ApplicationConfiguration;
 import top.crossoverjie.cicada.server.constant.CicadaConstant;
 import top.crossoverjie.cicada.server.context.CicadaContext;
 import top.crossoverjie.cicada.server.init.CicadaInitializer;
+import top.crossoverjie.cicada.server.thread.ExecutorManager;
 import top.crossoverjie.cicada.server.thread.ThreadLocalHolder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
 import static top.crossoverjie.cicada.server.configuration.ConfigurationHolder.getConfiguration;
 import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_THREAD_SHUTDOWN_NAME;
 import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_THREAD_WORK_NAME;
@@ -33,9 +43,9 @@ public class BootStrap {
     private final static Logger LOGGER = LoggerBuilder.getLogger(BootStrap.class);
 
     private static AppConfig appConfig = AppConfig.getInstance() ;
-    private static EventLoopGroup boss = new NioEventLoopGroup(1,new DefaultThreadFactory("boss"));
-    private static EventLoopGroup work = new NioEventLoopGroup(0,new DefaultThreadFactory(APPLICATION_THREAD_WORK_NAME));
-    private static Channel channel ;
+    private static EventLoopGroup boss ;
+    private static EventLoopGroup work ;
+    private static List<Channel> channels = new ArrayList<>(1) ;
 
     /**
      * Start netty Server
@@ -58,20 +68,56 @@ public class BootStrap {
      * @throws InterruptedException
      */
     private static void startServer() throws InterruptedException {
+        // business executors must exist before the first request arrives
+        ExecutorManager.getInstance().init();
+
+        boolean epoll = appConfig.isNativeTransport() && Epoll.isAvailable();
+        int listeners = Math.max(1, appConfig.getReusePortListeners());
+        if (!epoll && listeners > 1) {
+            LOGGER.warn("SO_REUSEPORT needs the native epoll transport, bind a single listener");
+            listeners = 1;
+        }
+
+        // every reuseport listener is registered on its own boss event loop
+        int bossThreads = Math.max(listeners, appConfig.getBossThreads());
+        boss = eventLoopGroup(epoll, bossThreads, new DefaultThreadFactory("boss"));
+        work = eventLoopGroup(epoll, appConfig.getIoThreads(), new DefaultThreadFactory(APPLICATION_THREAD_WORK_NAME));
+
         ServerBootstrap bootstrap = new ServerBootstrap()
                 .group(boss, work)
-                .channel(NioServerSocketChannel.class)
+                .channel(epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, appConfig.getBacklog())
+                .childOption(ChannelOption.TCP_NODELAY, appConfig.isTcpNoDelay())
                 .childHandler(new CicadaInitializer());
 
-        ChannelFuture future = bootstrap.bind(AppConfig.getInstance().getPort()).sync();
-        if (future.isSuccess()) {
-            appLog();
+        if (appConfig.getReceiveBufferSize() > 0) {
+            // set on the listener as well, so a window larger than 64KB can be negotiated
+            bootstrap.option(ChannelOption.SO_RCVBUF, appConfig.getReceiveBufferSize())
+                    .childOption(ChannelOption.SO_RCVBUF, appConfig.getReceiveBufferSize());
+        }
+        if (appConfig.getSendBufferSize() > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, appConfig.getSendBufferSize());
+        }
+        if (listeners > 1) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
         }
-        channel = future.channel();
+
+        for (int i = 0; i < listeners; i++) {
+            ChannelFuture future = bootstrap.bind(appConfig.getPort()).sync();
+            channels.add(future.channel());
+        }
+        LOGGER.info("Transport: {}, listeners: {}", epoll ? "epoll" : "nio", listeners);
+        appLog();
+    }
+
+    private static EventLoopGroup eventLoopGroup(boolean epoll, int threads, ThreadFactory threadFactory) {
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
     }
 
     private static void joinServer() throws Exception {
-        channel.closeFuture().sync();
+        for (Channel channel : channels) {
+            channel.closeFuture().sync();
+        }
     }
 
     private static void appLog() {
@@ -109,6 +155,9 @@ public class BootStrap {
             // 5. 关闭Netty线程组
             boss.shutdownGracefully();
             work.shutdownGracefully();
+
+            // 6. 关闭业务线程池
+            ExecutorManager.getInstance().shutdown();
             
             LOGGER.info("Cicada server has been successfully stopped.");
         }
@@ -0,0 +1,57 @@
+package top.crossoverjie.cicada.server.cache;
+
+/**
+ * Function: intrusive LRU list of cache entries, least recently used first.
+ * Not thread safe, guarded by the lock of the cache.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class AccessOrder {
+
+    CachedResponse head;
+
+    CachedResponse tail;
+
+    /**
+     * total weight of the entries
+     */
+    long bytes;
+
+    void addLast(CachedResponse entry) {
+        entry.queue = this;
+        entry.prev = tail;
+        entry.next = null;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+        bytes += entry.weight;
+    }
+
+    void remove(CachedResponse entry) {
+        if (entry.prev == null) {
+            head = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.queue = null;
+        bytes -= entry.weight;
+    }
+
+    void moveToLast(CachedResponse entry) {
+        if (tail != entry) {
+            remove(entry);
+            addLast(entry);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package top.crossoverjie.cicada.server.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.IllegalReferenceCountException;
+
+import java.util.Map;
+
+/**
+ * Function: encoded body of a route with its content type and headers, owned by {@link ResponseCache}
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class CachedResponse {
+
+    final String key;
+
+    final int hash;
+
+    final int weight;
+
+    private final String contentType;
+
+    private final Map<String, String> headers;
+
+    private final ByteBuf content;
+
+    private final long expiresAt;
+
+    /**
+     * queue of the eviction policy the entry is in, null once it was removed
+     */
+    AccessOrder queue;
+    CachedResponse prev;
+    CachedResponse next;
+
+    CachedResponse(String key, int hash, int weight, String contentType, Map<String, String> headers,
+                   ByteBuf content, long expiresAt) {
+        this.key = key;
+        this.hash = hash;
+        this.weight = weight;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.content = content;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return body to write, the caller owns the reference; null when the entry was just evicted
+     */
+    public ByteBuf retainedContent() {
+        try {
+            // 先增加引用计数，已释放的内容在这里失败
+            content.retain();
+            return content.duplicate();
+        } catch (IllegalReferenceCountException e) {
+            return null;
+        }
+    }
+
+    boolean isExpired(long now) {
+        return now - expiresAt >= 0;
+    }
+
+    void release() {
+        content.release();
+    }
+}
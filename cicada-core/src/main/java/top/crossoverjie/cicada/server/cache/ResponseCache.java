@@ -0,0 +1,306 @@
+package top.crossoverjie.cicada.server.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import top.crossoverjie.cicada.server.config.AppConfig;
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_CACHE_NAME;
+
+/**
+ * Function: size bounded cache of the encoded responses of @Cacheable routes.
+ *
+ * Eviction follows W-TinyLFU: new entries land in a small LRU window, entries leaving the
+ * window only stay when the frequency sketch has seen them more often than the LRU victim
+ * of the main space. The main space is segmented, entries hit twice move from probation to
+ * protected, so a burst of one-off keys can not flush the popular ones.
+ *
+ * Reads are lock free, the access is recorded only when the lock is free, like a lossy read buffer.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ResponseCache {
+
+    private volatile static ResponseCache responseCache;
+
+    /**
+     * fixed cost of an entry besides its body
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private static final int WINDOW_PERCENT = 1;
+
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final long maxBytes;
+
+    private final long windowMax;
+
+    private final long protectedMax;
+
+    private final boolean offHeap;
+
+    private final ConcurrentHashMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final FrequencySketch sketch;
+
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder probation = new AccessOrder();
+    private final AccessOrder protectedOrder = new AccessOrder();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile long weightedSize;
+
+    public static ResponseCache getInstance() {
+        if (responseCache == null) {
+            synchronized (ResponseCache.class) {
+                if (responseCache == null) {
+                    AppConfig appConfig = AppConfig.getInstance();
+                    responseCache = new ResponseCache(APPLICATION_CACHE_NAME, appConfig.getCacheMaxSize(), appConfig.isCacheOffHeap());
+                }
+            }
+        }
+        return responseCache;
+    }
+
+    /**
+     * @param name metric prefix, e.g. cicada.cache
+     * @param maxBytes bytes the entries may take
+     * @param offHeap copy the bodies to direct memory
+     */
+    ResponseCache(String name, long maxBytes, boolean offHeap) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.windowMax = Math.max(1, maxBytes * WINDOW_PERCENT / 100);
+        this.protectedMax = (maxBytes - windowMax) * PROTECTED_PERCENT / 100;
+        this.offHeap = offHeap;
+        this.sketch = new FrequencySketch((int) Math.min(1 << 22, Math.max(1024, maxBytes / 512)));
+        registerMetrics(name);
+    }
+
+    /**
+     * values are prefixed with their length so a value containing '&' or '=' can not look like
+     * another parameter, an absent parameter has no '=' at all, e.g. /user?id=1:7&lang
+     * @param path request path
+     * @param decoder query string of the request
+     * @param params query parameters which are part of the key
+     * @return cache key
+     */
+    public static String key(String path, QueryStringDecoder decoder, String[] params) {
+        if (params.length == 0) {
+            return path;
+        }
+        StringBuilder key = new StringBuilder(path).append('?');
+        Map<String, List<String>> parameters = decoder.parameters();
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                key.append('&');
+            }
+            key.append(params[i]);
+            List<String> values = parameters.get(params[i]);
+            if (values != null && !values.isEmpty()) {
+                String value = values.get(0);
+                key.append('=').append(value.length()).append(':').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param key cache key
+     * @return the live entry or null
+     */
+    public CachedResponse get(String key) {
+        CachedResponse entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            misses.increment();
+            lock.lock();
+            try {
+                if (entries.remove(key, entry)) {
+                    discard(entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        }
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                onAccess(entry);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * copy the body into the cache, the given buffer is not touched
+     *
+     * @param key cache key
+     * @param ttl milliseconds the entry is served
+     * @param contentType content type of the response
+     * @param headers headers set by the route
+     * @param content encoded body
+     */
+    public void put(String key, long ttl, String contentType, Map<String, String> headers, ByteBuf content) {
+        int length = content.readableBytes();
+        int weight = length + key.length() * 2 + ENTRY_OVERHEAD;
+        if (ttl <= 0 || weight > maxBytes - windowMax) {
+            return;
+        }
+        ByteBuf body = offHeap ? Unpooled.directBuffer(length, length) : Unpooled.buffer(length, length);
+        body.writeBytes(content, content.readerIndex(), length);
+        Map<String, String> copy = headers.isEmpty() ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(headers));
+        CachedResponse entry = new CachedResponse(key, spread(key.hashCode()), weight, contentType, copy,
+                body.asReadOnly(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl));
+
+        lock.lock();
+        try {
+            sketch.increment(entry.hash);
+            CachedResponse old = entries.put(key, entry);
+            if (old != null) {
+                discard(old);
+            }
+            window.addLast(entry);
+            weightedSize += weight;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * drop all entries
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            for (CachedResponse entry : entries.values()) {
+                if (entries.remove(entry.key, entry)) {
+                    discard(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onAccess(CachedResponse entry) {
+        AccessOrder queue = entry.queue;
+        if (queue == null) {
+            // 已被淘汰
+            return;
+        }
+        sketch.increment(entry.hash);
+        if (queue == probation) {
+            probation.remove(entry);
+            protectedOrder.addLast(entry);
+            while (protectedOrder.bytes > protectedMax) {
+                CachedResponse demoted = protectedOrder.head;
+                protectedOrder.remove(demoted);
+                probation.addLast(demoted);
+            }
+        } else {
+            queue.moveToLast(entry);
+        }
+    }
+
+    private void evict() {
+        // 离开窗口的条目成为候选，与主空间的LRU条目比较频率
+        CachedResponse candidate = null;
+        while (window.bytes > windowMax) {
+            CachedResponse entry = window.head;
+            window.remove(entry);
+            probation.addLast(entry);
+            if (candidate == null) {
+                candidate = entry;
+            }
+        }
+        while (weightedSize > maxBytes) {
+            CachedResponse victim = probation.head != null ? probation.head
+                    : protectedOrder.head != null ? protectedOrder.head : window.head;
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    candidate = candidate.next;
+                }
+                evict(victim);
+            } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evict(victim);
+            } else {
+                CachedResponse rejected = candidate;
+                candidate = candidate.next;
+                evict(rejected);
+            }
+        }
+    }
+
+    private void evict(CachedResponse entry) {
+        entries.remove(entry.key, entry);
+        discard(entry);
+        evictions.increment();
+    }
+
+    private void discard(CachedResponse entry) {
+        entry.queue.remove(entry);
+        weightedSize -= entry.weight;
+        entry.release();
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+
+    private void registerMetrics(String name) {
+        CicadaMetrics metrics = CicadaMetrics.getInstance();
+        metrics.register(name + ".hits", hits::sum);
+        metrics.register(name + ".misses", misses::sum);
+        metrics.register(name + ".hitRate", this::getHitRate);
+        metrics.register(name + ".evictions", evictions::sum);
+        metrics.register(name + ".entries", entries::size);
+        metrics.register(name + ".bytes", this::getWeightedSize);
+        metrics.register(name + ".maxBytes", () -> maxBytes);
+    }
+
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return bytes taken by the entries
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
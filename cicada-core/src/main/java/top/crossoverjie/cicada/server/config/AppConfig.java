@@ -1,10 +1,15 @@
 package top.crossoverjie.cicada.server.config;
 
 import io.netty.handler.codec.http.QueryStringDecoder;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
 import top.crossoverjie.cicada.server.enums.StatusEnum;
 import top.crossoverjie.cicada.server.exception.CicadaException;
 import top.crossoverjie.cicada.server.util.PathUtil;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Function:
  *
@@ -37,6 +42,165 @@ public final class AppConfig {
 
     private Integer port = 7317;
 
+    private ExecutionMode executionMode = ExecutionMode.EVENT_LOOP;
+
+    private int workerThreads = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    private int workerQueueSize = 1024;
+
+    private RejectPolicy workerRejectPolicy = RejectPolicy.ABORT;
+
+    /**
+     * use epoll when it is available
+     */
+    private boolean nativeTransport = true;
+
+    /**
+     * number of listeners bound with SO_REUSEPORT, only works with epoll
+     */
+    private int reusePortListeners = 1;
+
+    private int bossThreads = 1;
+
+    /**
+     * 0 means netty default: 2 * cores
+     */
+    private int ioThreads = 0;
+
+    private boolean tcpNoDelay = true;
+
+    private int backlog = 1024;
+
+    /**
+     * 0 means OS default
+     */
+    private int receiveBufferSize = 0;
+
+    private int sendBufferSize = 0;
+
+    /**
+     * hex dump every channel at INFO, for debugging only
+     */
+    private boolean wireLog = false;
+
+    /**
+     * flush at most once per read burst, 0 disables it
+     */
+    private int flushConsolidation = 256;
+
+    /**
+     * larger request bodies are answered with 413
+     */
+    private long maxBodySize = 10 * 1024 * 1024;
+
+    /**
+     * request bodies larger than this are spilled to a temp file
+     */
+    private int bodyMemoryThreshold = 64 * 1024;
+
+    /**
+     * directory of static files, null disables static file serving
+     */
+    private String staticDir;
+
+    /**
+     * static files are served under rootPath + staticPath
+     */
+    private String staticPath = "/static";
+
+    /**
+     * bytes of small static files kept in memory
+     */
+    private long staticCacheSize = 16 * 1024 * 1024;
+
+    /**
+     * larger static files are always sent from disk
+     */
+    private int staticCacheFileSize = 64 * 1024;
+
+    /**
+     * gzip/deflate responses when the client accepts it
+     */
+    private boolean compression = false;
+
+    /**
+     * 1 (fastest) to 9 (smallest)
+     */
+    private int compressionLevel = 6;
+
+    /**
+     * smaller bodies are sent uncompressed
+     */
+    private int compressionMinSize = 1024;
+
+    /**
+     * h2c (upgrade and prior knowledge) on plain connections, ALPN h2 with TLS
+     */
+    private boolean http2 = false;
+
+    private int http2MaxConcurrentStreams = 128;
+
+    /**
+     * PEM certificate chain, TLS is enabled when both cert and key are set
+     */
+    private String sslCert;
+
+    /**
+     * PEM PKCS#8 private key
+     */
+    private String sslKey;
+
+    /**
+     * reuse request, response, context and parameter objects once the response is written,
+     * off by default: an action keeping the context would see the one of a later request
+     */
+    private boolean recycle = false;
+
+    /**
+     * client keys each @RateLimit keeps buckets for, later keys share one bucket
+     */
+    private int rateLimitMaxKeys = 65536;
+
+    /**
+     * shed requests over an adaptive limit of routes running at the same time
+     */
+    private boolean concurrencyLimit = false;
+
+    private int concurrencyLimitInitial = 64;
+
+    private int concurrencyLimitMin = 8;
+
+    private int concurrencyLimitMax = 1024;
+
+    /**
+     * milliseconds a route may take before 504 is answered, 0 disables it
+     */
+    private long requestTimeout = 0;
+
+    /**
+     * size of a bulkhead without its own [cicada.bulkhead.name.threads]
+     */
+    private int bulkheadThreads = 4;
+
+    private int bulkheadQueueSize = 64;
+
+    /**
+     * bytes the @Cacheable responses may take
+     */
+    private long cacheMaxSize = 64 * 1024 * 1024;
+
+    /**
+     * keep the cached bodies in direct memory, out of the GC heap
+     */
+    private boolean cacheOffHeap = false;
+
+    /**
+     * bulkhead name -> threads / queue size
+     */
+    private final Map<String, Integer> namedBulkheadThreads = new HashMap<>(8);
+
+    private final Map<String, Integer> namedBulkheadQueueSize = new HashMap<>(8);
+
     public String getRootPackageName() {
         return rootPackageName;
     }
@@ -64,6 +228,330 @@ public final class AppConfig {
         this.port = port;
     }
 
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getWorkerQueueSize() {
+        return workerQueueSize;
+    }
+
+    public void setWorkerQueueSize(int workerQueueSize) {
+        this.workerQueueSize = workerQueueSize;
+    }
+
+    public RejectPolicy getWorkerRejectPolicy() {
+        return workerRejectPolicy;
+    }
+
+    public void setWorkerRejectPolicy(RejectPolicy workerRejectPolicy) {
+        this.workerRejectPolicy = workerRejectPolicy;
+    }
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    public void setNativeTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+    }
+
+    public int getReusePortListeners() {
+        return reusePortListeners;
+    }
+
+    public void setReusePortListeners(int reusePortListeners) {
+        this.reusePortListeners = reusePortListeners;
+    }
+
+    public int getBossThreads() {
+        return bossThreads;
+    }
+
+    public void setBossThreads(int bossThreads) {
+        this.bossThreads = bossThreads;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public boolean isWireLog() {
+        return wireLog;
+    }
+
+    public void setWireLog(boolean wireLog) {
+        this.wireLog = wireLog;
+    }
+
+    public int getFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(int flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public int getBodyMemoryThreshold() {
+        return bodyMemoryThreshold;
+    }
+
+    public void setBodyMemoryThreshold(int bodyMemoryThreshold) {
+        this.bodyMemoryThreshold = bodyMemoryThreshold;
+    }
+
+    public String getStaticDir() {
+        return staticDir;
+    }
+
+    public void setStaticDir(String staticDir) {
+        this.staticDir = staticDir;
+    }
+
+    public String getStaticPath() {
+        return staticPath;
+    }
+
+    public void setStaticPath(String staticPath) {
+        this.staticPath = staticPath;
+    }
+
+    public long getStaticCacheSize() {
+        return staticCacheSize;
+    }
+
+    public void setStaticCacheSize(long staticCacheSize) {
+        this.staticCacheSize = staticCacheSize;
+    }
+
+    public int getStaticCacheFileSize() {
+        return staticCacheFileSize;
+    }
+
+    public void setStaticCacheFileSize(int staticCacheFileSize) {
+        this.staticCacheFileSize = staticCacheFileSize;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    public void setCompressionMinSize(int compressionMinSize) {
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    public String getSslCert() {
+        return sslCert;
+    }
+
+    public void setSslCert(String sslCert) {
+        this.sslCert = sslCert;
+    }
+
+    public String getSslKey() {
+        return sslKey;
+    }
+
+    public void setSslKey(String sslKey) {
+        this.sslKey = sslKey;
+    }
+
+    public boolean isRecycle() {
+        return recycle;
+    }
+
+    public void setRecycle(boolean recycle) {
+        this.recycle = recycle;
+    }
+
+    public int getRateLimitMaxKeys() {
+        return rateLimitMaxKeys;
+    }
+
+    public void setRateLimitMaxKeys(int rateLimitMaxKeys) {
+        this.rateLimitMaxKeys = rateLimitMaxKeys;
+    }
+
+    public boolean isConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(boolean concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public int getConcurrencyLimitInitial() {
+        return concurrencyLimitInitial;
+    }
+
+    public void setConcurrencyLimitInitial(int concurrencyLimitInitial) {
+        this.concurrencyLimitInitial = concurrencyLimitInitial;
+    }
+
+    public int getConcurrencyLimitMin() {
+        return concurrencyLimitMin;
+    }
+
+    public void setConcurrencyLimitMin(int concurrencyLimitMin) {
+        this.concurrencyLimitMin = concurrencyLimitMin;
+    }
+
+    public int getConcurrencyLimitMax() {
+        return concurrencyLimitMax;
+    }
+
+    public void setConcurrencyLimitMax(int concurrencyLimitMax) {
+        this.concurrencyLimitMax = concurrencyLimitMax;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public boolean isCacheOffHeap() {
+        return cacheOffHeap;
+    }
+
+    public void setCacheOffHeap(boolean cacheOffHeap) {
+        this.cacheOffHeap = cacheOffHeap;
+    }
+
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getBulkheadThreads() {
+        return bulkheadThreads;
+    }
+
+    public void setBulkheadThreads(int bulkheadThreads) {
+        this.bulkheadThreads = bulkheadThreads;
+    }
+
+    public int getBulkheadQueueSize() {
+        return bulkheadQueueSize;
+    }
+
+    public void setBulkheadQueueSize(int bulkheadQueueSize) {
+        this.bulkheadQueueSize = bulkheadQueueSize;
+    }
+
+    public int getBulkheadThreads(String name) {
+        return namedBulkheadThreads.getOrDefault(name, bulkheadThreads);
+    }
+
+    public void setBulkheadThreads(String name, int threads) {
+        namedBulkheadThreads.put(name, threads);
+    }
+
+    public int getBulkheadQueueSize(String name) {
+        return namedBulkheadQueueSize.getOrDefault(name, bulkheadQueueSize);
+    }
+
+    public void setBulkheadQueueSize(String name, int queueSize) {
+        namedBulkheadQueueSize.put(name, queueSize);
+    }
+
+    public boolean isSsl() {
+        return sslCert != null && sslKey != null;
+    }
+
 
     /**
      * check Root Path
@@ -7,8 +7,11 @@ import top.crossoverjie.cicada.server.configuration.AbstractCicadaConfiguration;
 import top.crossoverjie.cicada.server.configuration.ApplicationConfiguration;
 import top.crossoverjie.cicada.server.configuration.ConfigurationHolder;
 import top.crossoverjie.cicada.server.constant.CicadaConstant;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
 import top.crossoverjie.cicada.server.exception.CicadaException;
 import top.crossoverjie.cicada.server.reflect.ClassScanner;
+import top.crossoverjie.cicada.server.route.RouterScanner;
 import top.crossoverjie.cicada.server.thread.ThreadLocalHolder;
 
 import java.io.File;
@@ -48,6 +51,9 @@ public final class CicadaSetting {
 
         //initBean route bean factory
         CicadaBeanManager.getInstance().initBean(rootPath);
+
+        //compile route tree
+        RouterScanner.getInstance().loadRoutes();
     }
 
 
@@ -87,8 +93,87 @@ public final class CicadaSetting {
         if (port == null) {
             throw new CicadaException("No [cicada.port] exists ");
         }
-        AppConfig.getInstance().setRootPath(rootPath);
-        AppConfig.getInstance().setPort(Integer.parseInt(port));
+        AppConfig appConfig = AppConfig.getInstance();
+        appConfig.setRootPath(rootPath);
+        appConfig.setPort(Integer.parseInt(port));
+
+        //execution model
+        appConfig.setExecutionMode(ExecutionMode.parse(applicationConfiguration.get(CicadaConstant.EXECUTION_MODE, ExecutionMode.EVENT_LOOP.name())));
+        appConfig.setWorkerThreads(applicationConfiguration.getInt(CicadaConstant.WORKER_THREADS, appConfig.getWorkerThreads()));
+        appConfig.setWorkerQueueSize(applicationConfiguration.getInt(CicadaConstant.WORKER_QUEUE_SIZE, appConfig.getWorkerQueueSize()));
+        appConfig.setWorkerRejectPolicy(RejectPolicy.parse(applicationConfiguration.get(CicadaConstant.WORKER_REJECT_POLICY, RejectPolicy.ABORT.name())));
+
+        //transport
+        appConfig.setNativeTransport(applicationConfiguration.getBoolean(CicadaConstant.TRANSPORT_NATIVE, appConfig.isNativeTransport()));
+        appConfig.setReusePortListeners(applicationConfiguration.getInt(CicadaConstant.REUSE_PORT_LISTENERS, appConfig.getReusePortListeners()));
+        appConfig.setBossThreads(applicationConfiguration.getInt(CicadaConstant.BOSS_THREADS, appConfig.getBossThreads()));
+        appConfig.setIoThreads(applicationConfiguration.getInt(CicadaConstant.IO_THREADS, appConfig.getIoThreads()));
+        appConfig.setTcpNoDelay(applicationConfiguration.getBoolean(CicadaConstant.TCP_NODELAY, appConfig.isTcpNoDelay()));
+        appConfig.setBacklog(applicationConfiguration.getInt(CicadaConstant.SO_BACKLOG, appConfig.getBacklog()));
+        appConfig.setReceiveBufferSize(applicationConfiguration.getInt(CicadaConstant.SO_RCVBUF, appConfig.getReceiveBufferSize()));
+        appConfig.setSendBufferSize(applicationConfiguration.getInt(CicadaConstant.SO_SNDBUF, appConfig.getSendBufferSize()));
+
+        //pipeline
+        appConfig.setWireLog(applicationConfiguration.getBoolean(CicadaConstant.WIRE_LOG, appConfig.isWireLog()));
+        appConfig.setFlushConsolidation(applicationConfiguration.getInt(CicadaConstant.FLUSH_CONSOLIDATION, appConfig.getFlushConsolidation()));
+
+        //request body
+        appConfig.setMaxBodySize(applicationConfiguration.getLong(CicadaConstant.BODY_MAX_SIZE, appConfig.getMaxBodySize()));
+        appConfig.setBodyMemoryThreshold(applicationConfiguration.getInt(CicadaConstant.BODY_MEMORY_THRESHOLD, appConfig.getBodyMemoryThreshold()));
+
+        //static files
+        appConfig.setStaticDir(applicationConfiguration.get(CicadaConstant.STATIC_DIR));
+        appConfig.setStaticPath(applicationConfiguration.get(CicadaConstant.STATIC_PATH, appConfig.getStaticPath()));
+        appConfig.setStaticCacheSize(applicationConfiguration.getLong(CicadaConstant.STATIC_CACHE_SIZE, appConfig.getStaticCacheSize()));
+        appConfig.setStaticCacheFileSize(applicationConfiguration.getInt(CicadaConstant.STATIC_CACHE_FILE_SIZE, appConfig.getStaticCacheFileSize()));
+
+        //compression
+        appConfig.setCompression(applicationConfiguration.getBoolean(CicadaConstant.COMPRESSION, appConfig.isCompression()));
+        appConfig.setCompressionLevel(applicationConfiguration.getInt(CicadaConstant.COMPRESSION_LEVEL, appConfig.getCompressionLevel()));
+        appConfig.setCompressionMinSize(applicationConfiguration.getInt(CicadaConstant.COMPRESSION_MIN_SIZE, appConfig.getCompressionMinSize()));
+
+        //http2 and tls
+        appConfig.setHttp2(applicationConfiguration.getBoolean(CicadaConstant.HTTP2, appConfig.isHttp2()));
+        appConfig.setHttp2MaxConcurrentStreams(applicationConfiguration.getInt(CicadaConstant.HTTP2_MAX_CONCURRENT_STREAMS, appConfig.getHttp2MaxConcurrentStreams()));
+        appConfig.setSslCert(applicationConfiguration.get(CicadaConstant.SSL_CERT));
+        appConfig.setSslKey(applicationConfiguration.get(CicadaConstant.SSL_KEY));
+
+        //object pooling
+        appConfig.setRecycle(applicationConfiguration.getBoolean(CicadaConstant.RECYCLE, appConfig.isRecycle()));
+
+        //rate limit
+        appConfig.setRateLimitMaxKeys(applicationConfiguration.getInt(CicadaConstant.RATE_LIMIT_MAX_KEYS, appConfig.getRateLimitMaxKeys()));
+
+        //concurrency limit
+        appConfig.setConcurrencyLimit(applicationConfiguration.getBoolean(CicadaConstant.CONCURRENCY_LIMIT, appConfig.isConcurrencyLimit()));
+        appConfig.setConcurrencyLimitInitial(applicationConfiguration.getInt(CicadaConstant.CONCURRENCY_LIMIT_INITIAL, appConfig.getConcurrencyLimitInitial()));
+        appConfig.setConcurrencyLimitMin(applicationConfiguration.getInt(CicadaConstant.CONCURRENCY_LIMIT_MIN, appConfig.getConcurrencyLimitMin()));
+        appConfig.setConcurrencyLimitMax(applicationConfiguration.getInt(CicadaConstant.CONCURRENCY_LIMIT_MAX, appConfig.getConcurrencyLimitMax()));
+
+        //request deadline
+        appConfig.setRequestTimeout(applicationConfiguration.getLong(CicadaConstant.REQUEST_TIMEOUT, appConfig.getRequestTimeout()));
+
+        //response cache
+        appConfig.setCacheMaxSize(applicationConfiguration.getLong(CicadaConstant.CACHE_MAX_SIZE, appConfig.getCacheMaxSize()));
+        appConfig.setCacheOffHeap(applicationConfiguration.getBoolean(CicadaConstant.CACHE_OFFHEAP, appConfig.isCacheOffHeap()));
+
+        //bulkheads
+        appConfig.setBulkheadThreads(applicationConfiguration.getInt(CicadaConstant.BULKHEAD_THREADS, appConfig.getBulkheadThreads()));
+        appConfig.setBulkheadQueueSize(applicationConfiguration.getInt(CicadaConstant.BULKHEAD_QUEUE_SIZE, appConfig.getBulkheadQueueSize()));
+        for (String key : applicationConfiguration.keys()) {
+            if (!key.startsWith(CicadaConstant.BULKHEAD_PREFIX)) {
+                continue;
+            }
+            // cicada.bulkhead.{name}.threads / cicada.bulkhead.{name}.queue.size
+            String rest = key.substring(CicadaConstant.BULKHEAD_PREFIX.length());
+            if (rest.endsWith(CicadaConstant.BULKHEAD_QUEUE_SIZE_SUFFIX)) {
+                String name = rest.substring(0, rest.length() - CicadaConstant.BULKHEAD_QUEUE_SIZE_SUFFIX.length());
+                appConfig.setBulkheadQueueSize(name, applicationConfiguration.getInt(key, appConfig.getBulkheadQueueSize()));
+            } else if (rest.endsWith(CicadaConstant.BULKHEAD_THREADS_SUFFIX)) {
+                String name = rest.substring(0, rest.length() - CicadaConstant.BULKHEAD_THREADS_SUFFIX.length());
+                appConfig.setBulkheadThreads(name, applicationConfiguration.getInt(key, appConfig.getBulkheadThreads()));
+            }
+        }
     }
 
 
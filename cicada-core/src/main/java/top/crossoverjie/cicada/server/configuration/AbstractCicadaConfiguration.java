@@ -1,6 +1,7 @@
 package top.crossoverjie.cicada.server.configuration;
 
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Function:
@@ -31,10 +32,43 @@ public abstract class AbstractCicadaConfiguration {
         this.properties = properties;
     }
 
+    /**
+     * @return all keys, e.g. to find the keys of named bulkheads
+     */
+    public Set<String> keys() {
+        return properties.stringPropertyNames();
+    }
+
     public String get(String key) {
         return properties.get(key) == null ? null : properties.get(key).toString();
     }
 
+    /**
+     * get value or default value when the key is absent
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public String get(String key, String defaultValue) {
+        String value = get(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
     @Override
     public String toString() {
         return "AbstractCicadaConfiguration{" +
@@ -12,6 +12,47 @@ public final class CicadaConstant {
 
     public final static String CICADA_PORT = "cicada.port";
     public final static String ROOT_PATH = "cicada.root.path";
+    public final static String EXECUTION_MODE = "cicada.execution.mode";
+    public final static String WORKER_THREADS = "cicada.worker.threads";
+    public final static String WORKER_QUEUE_SIZE = "cicada.worker.queue.size";
+    public final static String WORKER_REJECT_POLICY = "cicada.worker.reject.policy";
+    public final static String TRANSPORT_NATIVE = "cicada.transport.native";
+    public final static String REUSE_PORT_LISTENERS = "cicada.reuseport.listeners";
+    public final static String BOSS_THREADS = "cicada.boss.threads";
+    public final static String IO_THREADS = "cicada.io.threads";
+    public final static String TCP_NODELAY = "cicada.tcp.nodelay";
+    public final static String SO_BACKLOG = "cicada.so.backlog";
+    public final static String SO_RCVBUF = "cicada.so.rcvbuf";
+    public final static String SO_SNDBUF = "cicada.so.sndbuf";
+    public final static String WIRE_LOG = "cicada.wire.log";
+    public final static String FLUSH_CONSOLIDATION = "cicada.flush.consolidation";
+    public final static String BODY_MAX_SIZE = "cicada.body.max.size";
+    public final static String BODY_MEMORY_THRESHOLD = "cicada.body.memory.threshold";
+    public final static String STATIC_DIR = "cicada.static.dir";
+    public final static String STATIC_PATH = "cicada.static.path";
+    public final static String STATIC_CACHE_SIZE = "cicada.static.cache.size";
+    public final static String STATIC_CACHE_FILE_SIZE = "cicada.static.cache.file.size";
+    public final static String COMPRESSION = "cicada.compression";
+    public final static String COMPRESSION_LEVEL = "cicada.compression.level";
+    public final static String COMPRESSION_MIN_SIZE = "cicada.compression.min.size";
+    public final static String HTTP2 = "cicada.http2";
+    public final static String HTTP2_MAX_CONCURRENT_STREAMS = "cicada.http2.max.concurrent.streams";
+    public final static String SSL_CERT = "cicada.ssl.cert";
+    public final static String SSL_KEY = "cicada.ssl.key";
+    public final static String RECYCLE = "cicada.recycle";
+    public final static String RATE_LIMIT_MAX_KEYS = "cicada.ratelimit.max.keys";
+    public final static String CONCURRENCY_LIMIT = "cicada.concurrency.limit";
+    public final static String CONCURRENCY_LIMIT_INITIAL = "cicada.concurrency.limit.initial";
+    public final static String CONCURRENCY_LIMIT_MIN = "cicada.concurrency.limit.min";
+    public final static String CONCURRENCY_LIMIT_MAX = "cicada.concurrency.limit.max";
+    public final static String REQUEST_TIMEOUT = "cicada.request.timeout";
+    public final static String BULKHEAD_PREFIX = "cicada.bulkhead.";
+    public final static String BULKHEAD_THREADS = "cicada.bulkhead.threads";
+    public final static String BULKHEAD_QUEUE_SIZE = "cicada.bulkhead.queue.size";
+    public final static String BULKHEAD_THREADS_SUFFIX = ".threads";
+    public final static String BULKHEAD_QUEUE_SIZE_SUFFIX = ".queue.size";
+    public final static String CACHE_MAX_SIZE = "cicada.cache.max.size";
+    public final static String CACHE_OFFHEAP = "cicada.cache.offheap";
 
     public static final class ContentType {
         public final static String JSON = "application/json; charset=UTF-8";
@@ -38,6 +79,12 @@ public final class CicadaConstant {
         public final static String APPLICATION_THREAD_MAIN_NAME = "☝( ◠‿◠ )☝";
         public final static String APPLICATION_THREAD_WORK_NAME = "(♛‿♛)";
         public final static String APPLICATION_THREAD_SHUTDOWN_NAME = "(〒︿〒)";
+        public final static String APPLICATION_WORKER_NAME = "cicada.worker";
+        public final static String APPLICATION_VIRTUAL_NAME = "cicada.virtual";
+        public final static String APPLICATION_LIMIT_NAME = "cicada.limit";
+        public final static String APPLICATION_BULKHEAD_NAME = "cicada.bulkhead";
+        public final static String APPLICATION_CACHE_NAME = "cicada.cache";
+        public final static String APPLICATION_STATIC_NAME = "cicada.static";
 
     }
 
@@ -1,11 +1,18 @@
 package top.crossoverjie.cicada.server.context;
 
-import com.alibaba.fastjson.JSON;
+import io.netty.util.Recycler;
+import top.crossoverjie.cicada.server.action.req.CicadaHttpRequest;
 import top.crossoverjie.cicada.server.action.req.CicadaRequest;
+import top.crossoverjie.cicada.server.action.res.CicadaHttpResponse;
 import top.crossoverjie.cicada.server.action.res.CicadaResponse;
+import top.crossoverjie.cicada.server.action.res.ResponseStream;
 import top.crossoverjie.cicada.server.action.res.WorkRes;
 import top.crossoverjie.cicada.server.constant.CicadaConstant;
 import top.crossoverjie.cicada.server.thread.ThreadLocalHolder;
+import top.crossoverjie.cicada.server.util.BodyUtil;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Function: Cicada context
@@ -16,6 +23,17 @@ import top.crossoverjie.cicada.server.thread.ThreadLocalHolder;
  */
 public final class CicadaContext {
 
+    private static final Recycler<CicadaContext> RECYCLER = new Recycler<CicadaContext>() {
+        @Override
+        protected CicadaContext newObject(Handle<CicadaContext> handle) {
+            return new CicadaContext(handle);
+        }
+    };
+
+    /**
+     * null when created with the constructor
+     */
+    private final Recycler.Handle<CicadaContext> handle;
 
     /**
      * current thread request
@@ -27,11 +45,66 @@ public final class CicadaContext {
      */
     private CicadaResponse response ;
 
+    /**
+     * per request state, e.g. of interceptors, created on first use
+     */
+    private Map<String, Object> attributes ;
+
+    /**
+     * null when the route has no timeout
+     */
+    private Deadline deadline ;
+
+    /**
+     * handed to another thread by ContextPropagation, it must not be recycled
+     */
+    private volatile boolean captured ;
+
     public CicadaContext(CicadaRequest request, CicadaResponse response) {
+        this.handle = null;
         this.request = request;
         this.response = response;
     }
 
+    private CicadaContext(Recycler.Handle<CicadaContext> handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * @param request request
+     * @param response response
+     * @return context from the pool of the current thread
+     */
+    public static CicadaContext newInstance(CicadaRequest request, CicadaResponse response) {
+        CicadaContext context = RECYCLER.get();
+        context.request = request;
+        context.response = response;
+        return context;
+    }
+
+    /**
+     * return the context together with its request and response to their pools,
+     * called by the dispatcher once the response is written
+     */
+    public void recycle() {
+        if (request instanceof CicadaHttpRequest) {
+            ((CicadaHttpRequest) request).recycle();
+        }
+        if (response instanceof CicadaHttpResponse) {
+            ((CicadaHttpResponse) response).recycle();
+        }
+        request = null;
+        response = null;
+        deadline = null;
+        captured = false;
+        if (attributes != null) {
+            attributes.clear();
+        }
+        if (handle != null) {
+            handle.recycle(this);
+        }
+    }
+
 
     /**
      * response json message
@@ -39,7 +112,7 @@ public final class CicadaContext {
      */
     public void json(WorkRes workRes){
         CicadaContext.getResponse().setContentType(CicadaConstant.ContentType.JSON);
-        CicadaContext.getResponse().setHttpContent(JSON.toJSONString(workRes));
+        CicadaContext.getResponse().setHttpContent(BodyUtil.json(workRes));
     }
 
     /**
@@ -60,6 +133,62 @@ public final class CicadaContext {
         CicadaContext.getResponse().setHttpContent(html);
     }
 
+    /**
+     * response a chunked body written while it is produced, e.g. a large export.
+     * The route must run on a worker or virtual thread, writes block while the client is slow.
+     * @param contentType content type of the body
+     * @return stream of the body, closed when the action returns
+     */
+    public ResponseStream stream(String contentType){
+        CicadaContext.getResponse().setContentType(contentType);
+        return CicadaContext.getResponse().stream();
+    }
+
+    /**
+     * keep state of the current request, interceptors are shared by all requests
+     * so they must not keep it in fields
+     * @param name name
+     * @param value value
+     */
+    public void setAttribute(String name, Object value){
+        if (attributes == null) {
+            attributes = new HashMap<>(4);
+        }
+        attributes.put(name, value);
+    }
+
+    /**
+     * @param name name
+     * @return value set by {@link #setAttribute(String, Object)}, null when absent
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String name){
+        return attributes == null ? null : (T) attributes.get(name);
+    }
+
+    /**
+     * @return deadline of the request from [cicada.request.timeout] or {@link top.crossoverjie.cicada.server.annotation.CicadaRoute#timeout()},
+     * null when the request has none
+     */
+    public Deadline getDeadline(){
+        return deadline ;
+    }
+
+    public void setDeadline(Deadline deadline){
+        this.deadline = deadline ;
+    }
+
+    /**
+     * the context may outlive the request, e.g. in a fire-and-forget task
+     */
+    public void markCaptured(){
+        this.captured = true ;
+    }
+
+    public boolean isCaptured(){
+        return captured ;
+    }
+
     public static CicadaRequest getRequest(){
         return CicadaContext.getContext().request ;
     }
@@ -0,0 +1,48 @@
+package top.crossoverjie.cicada.server.context;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function: point in time a request must be answered by, read it from {@link CicadaContext#getDeadline()}
+ * to bound blocking calls of the action, cicada-db applies it as the query timeout
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class Deadline {
+
+    /**
+     * System.nanoTime() based
+     */
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param timeout time from now
+     * @param unit unit of the timeout
+     * @return deadline
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * @param unit unit of the result
+     * @return time left, zero or negative once expired
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms}";
+    }
+}
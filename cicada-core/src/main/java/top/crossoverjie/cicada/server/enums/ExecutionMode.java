@@ -0,0 +1,39 @@
+package top.crossoverjie.cicada.server.enums;
+
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+/**
+ * Function: where the route action is executed
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public enum ExecutionMode {
+
+    /** follow [cicada.execution.mode], only used by {@link top.crossoverjie.cicada.server.annotation.CicadaRoute} */
+    DEFAULT,
+
+    /** run on the netty I/O thread, only for non-blocking actions */
+    EVENT_LOOP,
+
+    /** run on the bounded business worker pool */
+    WORKER,
+
+    /** one virtual thread per request, fall back to the worker pool before JDK 21 */
+    VIRTUAL,
+    ;
+
+    /**
+     * parse value of [cicada.execution.mode]
+     * @param value event_loop, worker or virtual
+     * @return execution mode
+     */
+    public static ExecutionMode parse(String value) {
+        for (ExecutionMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new CicadaException("Unknown [cicada.execution.mode] " + value);
+    }
+}
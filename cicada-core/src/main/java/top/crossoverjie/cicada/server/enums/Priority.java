@@ -0,0 +1,19 @@
+package top.crossoverjie.cicada.server.enums;
+
+/**
+ * Function: order of queued routes in the worker pool and bulkheads, routes of the same priority run in arrival order
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public enum Priority {
+
+    /** critical routes, e.g. health checks, taken before any other queued route */
+    HIGH,
+
+    NORMAL,
+
+    /** background work, e.g. reports, only taken when nothing else is queued */
+    LOW,
+    ;
+}
@@ -0,0 +1,23 @@
+package top.crossoverjie.cicada.server.enums;
+
+/**
+ * Function: what a {@link top.crossoverjie.cicada.server.annotation.RateLimit} is counted by
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public enum RateLimitKey {
+
+    /** one bucket for the whole route */
+    ROUTE,
+
+    /** one bucket per client ip of the connection */
+    IP,
+
+    /** one bucket per value of the header named by RateLimit.name() */
+    HEADER,
+
+    /** one bucket per value of the cookie named by RateLimit.name() */
+    COOKIE,
+    ;
+}
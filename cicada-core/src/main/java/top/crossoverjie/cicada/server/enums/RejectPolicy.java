@@ -0,0 +1,33 @@
+package top.crossoverjie.cicada.server.enums;
+
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+/**
+ * Function: what to do when the worker queue is full
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public enum RejectPolicy {
+
+    /** reject the request with 503 Service Unavailable */
+    ABORT,
+
+    /** run the action on the calling event loop */
+    CALLER_RUNS,
+    ;
+
+    /**
+     * parse value of [cicada.worker.reject.policy]
+     * @param value abort or caller_runs
+     * @return reject policy
+     */
+    public static RejectPolicy parse(String value) {
+        for (RejectPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new CicadaException("Unknown [cicada.worker.reject.policy] " + value);
+    }
+}
@@ -6,23 +6,35 @@ import java.util.List;
 public enum StatusEnum {
 
     /** success */
-    SUCCESS("9000", "success"),
+    SUCCESS("9000", "success", 200),
 
 
-    /** request Error */
-    REQUEST_ERROR("7000", "Request Error"),
+    /** request Error, the uri is outside of [cicada.root.path] */
+    REQUEST_ERROR("7000", "Request Error", 404),
 
     /** duplicate ioc impl*/
-    DUPLICATE_IOC("8000", "Duplicate ioc impl error"),
+    DUPLICATE_IOC("8000", "Duplicate ioc impl error", 500),
 
     /** empty of package */
-    NULL_PACKAGE("8000", "Your main class is empty of package"),
+    NULL_PACKAGE("8000", "Your main class is empty of package", 500),
+
+    /** the request body or a parameter can not be read */
+    BAD_REQUEST("400", "Bad Request", 400),
 
     /** 404 */
-    NOT_FOUND("404", "Need to declare a method by using @CicadaRoute!"),
+    NOT_FOUND("404", "Need to declare a method by using @CicadaRoute!", 404),
 
     /** IllegalArgumentException */
-    ILLEGAL_PARAMETER("404", "IllegalArgumentException: You can only have two parameters at most by using @CicadaRoute!"),
+    ILLEGAL_PARAMETER("404", "IllegalArgumentException: You can only have two parameters at most by using @CicadaRoute!", 500),
+
+    /** @RateLimit */
+    TOO_MANY_REQUESTS("429", "Too Many Requests", 429),
+
+    /** shed by the concurrency limit */
+    SERVICE_UNAVAILABLE("503", "Service Unavailable", 503),
+
+    /** the request ran past its deadline */
+    GATEWAY_TIMEOUT("504", "Gateway Timeout", 504),
     ;
 
 
@@ -32,14 +44,19 @@ public enum StatusEnum {
     /** 枚举描述 */
     private final String message;
 
+    /** 对应的HTTP状态码 */
+    private final int httpStatus;
+
     /**
      * 构建一个 StatusEnum 。
      * @param code 枚举值码。
      * @param message 枚举描述。
+     * @param httpStatus HTTP状态码。
      */
-    private StatusEnum(String code, String message) {
+    private StatusEnum(String code, String message, int httpStatus) {
         this.code = code;
         this.message = message;
+        this.httpStatus = httpStatus;
     }
 
     /**
@@ -58,6 +75,14 @@ public enum StatusEnum {
         return message;
     }
 
+    /**
+     * 得到HTTP状态码。
+     * @return HTTP状态码。
+     */
+    public int httpStatus() {
+        return httpStatus;
+    }
+
     /**
      * 得到枚举值码。
      * @return 枚举值码。
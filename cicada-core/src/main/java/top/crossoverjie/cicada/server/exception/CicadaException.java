@@ -12,6 +12,10 @@ import top.crossoverjie.cicada.server.enums.StatusEnum;
  */
 public class CicadaException extends GenericException {
 
+    /**
+     * null when not created from a StatusEnum
+     */
+    private StatusEnum status;
 
     public CicadaException(String errorCode, String errorMessage) {
         super(errorMessage);
@@ -30,16 +34,23 @@ public class CicadaException extends GenericException {
         this.errorMessage = message;
     }
 
+    /**
+     * 4xx statuses are answers to the client rather than bugs (e.g. a scanner probing unknown paths),
+     * 503 and 504 are expected under overload, they are created without a stack trace
+     * @param statusEnum status
+     */
     public CicadaException(StatusEnum statusEnum) {
-        super(statusEnum.getMessage());
+        super(statusEnum.getMessage(), writableStackTrace(statusEnum));
         this.errorMessage = statusEnum.message();
         this.errorCode = statusEnum.getCode();
+        this.status = statusEnum;
     }
 
     public CicadaException(StatusEnum statusEnum, String message) {
-        super(message);
+        super(message, writableStackTrace(statusEnum));
         this.errorMessage = message;
         this.errorCode = statusEnum.getCode();
+        this.status = statusEnum;
     }
 
     public CicadaException(Exception oriEx) {
@@ -61,6 +72,25 @@ public class CicadaException extends GenericException {
     }
 
 
+    /**
+     * @return status of the exception, null when it was not created from a StatusEnum
+     */
+    public StatusEnum getStatus() {
+        return status;
+    }
+
+    /**
+     * @return HTTP status of the response, 500 when the exception has no status
+     */
+    public int httpStatus() {
+        return status == null ? 500 : status.httpStatus();
+    }
+
+    private static boolean writableStackTrace(StatusEnum statusEnum) {
+        return statusEnum.httpStatus() >= 500
+                && statusEnum != StatusEnum.SERVICE_UNAVAILABLE && statusEnum != StatusEnum.GATEWAY_TIMEOUT;
+    }
+
     public static boolean isResetByPeer(String msg) {
         if ("Connection reset by peer".equals(msg)) {
             return true;
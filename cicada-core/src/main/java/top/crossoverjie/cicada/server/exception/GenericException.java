@@ -41,6 +41,14 @@ public class GenericException extends RuntimeException implements Serializable {
         super(message, oriEx);
     }
 
+    /**
+     * @param message message
+     * @param writableStackTrace false for exceptions used as control flow, no stack trace is captured
+     */
+    protected GenericException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
+
     public String getErrorCode() {
         return this.errorCode;
     }
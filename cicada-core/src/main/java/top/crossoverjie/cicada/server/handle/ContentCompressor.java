@@ -0,0 +1,118 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+
+/**
+ * Function: gzip/deflate response bodies when the client accepts it.
+ *
+ * Only added to the pipeline when [cicada.compression] is on. Bodies smaller than
+ * [cicada.compression.min.size], partial responses, media that is already compressed and
+ * responses created by {@link #identity(HttpResponseStatus)} are sent as they are.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ContentCompressor extends HttpContentCompressor {
+
+    private static final int WINDOW_BITS = 15;
+
+    private static final int MEM_LEVEL = 8;
+
+    public ContentCompressor(int compressionLevel, int minSize) {
+        super(compressionLevel, WINDOW_BITS, MEM_LEVEL, minSize);
+    }
+
+    /**
+     * a response head whose body must not be compressed on the fly, e.g. a FileRegion
+     * or a body that is already compressed
+     * @param status status
+     * @return response head
+     */
+    public static HttpResponse identity(HttpResponseStatus status) {
+        return new IdentityResponse(status);
+    }
+
+    @Override
+    protected Result beginEncode(HttpResponse response, String acceptEncoding) throws Exception {
+        if (response instanceof IdentityResponse
+                || response.status().code() == HttpResponseStatus.PARTIAL_CONTENT.code()
+                || !isCompressible(response.headers().get(HttpHeaderNames.CONTENT_TYPE))) {
+            return null;
+        }
+        Result result = super.beginEncode(response, acceptEncoding);
+        if (result != null) {
+            vary(response.headers());
+        }
+        return result;
+    }
+
+    /**
+     * @param contentType content type, may be null
+     * @return false for images, archives and other media that does not shrink
+     */
+    public static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        return contentType.startsWith("text/")
+                || contentType.startsWith("application/json")
+                || contentType.startsWith("application/javascript")
+                || contentType.startsWith("application/xml")
+                || contentType.startsWith("application/wasm")
+                || contentType.startsWith("image/svg+xml")
+                || contentType.contains("+json")
+                || contentType.contains("+xml");
+    }
+
+    /**
+     * @param acceptEncoding value of Accept-Encoding, may be null
+     * @return true when gzip is accepted with a non zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            if (parts.length == 1) {
+                return true;
+            }
+            String q = parts[1].trim();
+            try {
+                return !q.startsWith("q=") || Float.parseFloat(q.substring(2)) > 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * tell caches the body depends on Accept-Encoding
+     * @param headers response headers
+     */
+    static void vary(HttpHeaders headers) {
+        if (!headers.containsValue(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING, true)) {
+            headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * marker of responses the compressor passes through
+     */
+    private static final class IdentityResponse extends DefaultHttpResponse {
+        private IdentityResponse(HttpResponseStatus status) {
+            super(HttpVersion.HTTP_1_1, status);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package top.crossoverjie.cicada.server.handle;
+
+import com.alibaba.fastjson.JSON;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import top.crossoverjie.cicada.server.action.res.WorkRes;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Function: JSON error bodies encoded once at startup, a 404 only costs a duplicate of the buffer
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class ErrorResponses {
+
+    private static final Map<StatusEnum, ByteBuf> BODIES = new EnumMap<>(StatusEnum.class);
+
+    private static final ByteBuf INTERNAL_ERROR = encode("500", "Internal Server Error");
+
+    static {
+        for (StatusEnum status : StatusEnum.values()) {
+            if (status.httpStatus() >= 400) {
+                BODIES.put(status, encode(status.getCode(), status.getMessage()));
+            }
+        }
+    }
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * @param e exception thrown by the route or an interceptor
+     * @return body of the error response, nothing to release
+     */
+    static ByteBuf body(Exception e) {
+        ByteBuf body = null;
+        if (e instanceof CicadaException && ((CicadaException) e).getStatus() != null) {
+            body = BODIES.get(((CicadaException) e).getStatus());
+        }
+        return (body == null ? INTERNAL_ERROR : body).duplicate();
+    }
+
+    /**
+     * @param status status with a preencoded body, e.g. SERVICE_UNAVAILABLE
+     * @return body of the error response, nothing to release
+     */
+    static ByteBuf body(StatusEnum status) {
+        ByteBuf body = BODIES.get(status);
+        return (body == null ? INTERNAL_ERROR : body).duplicate();
+    }
+
+    /**
+     * @param e exception thrown by the route or an interceptor
+     * @return status of the response
+     */
+    static int status(Exception e) {
+        return e instanceof CicadaException ? ((CicadaException) e).httpStatus() : 500;
+    }
+
+    private static ByteBuf encode(String code, String message) {
+        WorkRes<Void> workRes = new WorkRes<>();
+        workRes.setCode(code);
+        workRes.setMessage(message);
+        byte[] bytes = JSON.toJSONBytes(workRes);
+        return Unpooled.unreleasableBuffer(Unpooled.directBuffer(bytes.length).writeBytes(bytes).asReadOnly());
+    }
+}
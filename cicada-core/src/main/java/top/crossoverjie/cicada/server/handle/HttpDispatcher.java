@@ -7,30 +7,50 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.AttributeKey;
 import org.slf4j.Logger;
 import top.crossoverjie.cicada.base.log.LoggerBuilder;
 import top.crossoverjie.cicada.server.action.param.Param;
 import top.crossoverjie.cicada.server.action.param.ParamMap;
 import top.crossoverjie.cicada.server.action.req.CicadaHttpRequest;
-import top.crossoverjie.cicada.server.action.req.CicadaRequest;
+import top.crossoverjie.cicada.server.action.req.RequestBody;
 import top.crossoverjie.cicada.server.action.res.CicadaHttpResponse;
 import top.crossoverjie.cicada.server.action.res.CicadaResponse;
+import top.crossoverjie.cicada.server.action.res.ResponseStream;
 import top.crossoverjie.cicada.server.action.res.WorkRes;
+import top.crossoverjie.cicada.server.annotation.Cacheable;
 import top.crossoverjie.cicada.server.bean.CicadaBeanManager;
+import top.crossoverjie.cicada.server.cache.CachedResponse;
+import top.crossoverjie.cicada.server.cache.ResponseCache;
 import top.crossoverjie.cicada.server.config.AppConfig;
 import top.crossoverjie.cicada.server.constant.CicadaConstant;
 import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.context.Deadline;
+import top.crossoverjie.cicada.server.enums.Priority;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
 import top.crossoverjie.cicada.server.exception.CicadaException;
 import top.crossoverjie.cicada.server.exception.GlobalHandelException;
+import top.crossoverjie.cicada.server.intercept.CicadaInterceptor;
 import top.crossoverjie.cicada.server.intercept.InterceptProcess;
+import top.crossoverjie.cicada.server.route.Route;
 import top.crossoverjie.cicada.server.route.RouteProcess;
 import top.crossoverjie.cicada.server.route.RouterScanner;
+import top.crossoverjie.cicada.server.thread.ConcurrencyLimiter;
+import top.crossoverjie.cicada.server.thread.ContextPropagation;
+import top.crossoverjie.cicada.server.thread.ExecutorManager;
+import top.crossoverjie.cicada.server.thread.PrioritizedTask;
+import top.crossoverjie.cicada.server.util.PathUtil;
 
-import java.lang.reflect.Method;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Function:
@@ -51,10 +71,15 @@ import java.util.Map;
  * 通过@ChannelHandler.Sharable注解实现
  */
 @ChannelHandler.Sharable
-public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHttpRequest> {
+public final class HttpDispatcher extends SimpleChannelInboundHandler<HttpObject> {
 
     private static final Logger LOGGER = LoggerBuilder.getLogger(HttpDispatcher.class);
 
+    /**
+     * request whose body is still being read, the handler is shared so it lives on the channel
+     */
+    private static final AttributeKey<InboundRequest> INBOUND = AttributeKey.valueOf("cicada.inbound");
+
     /**
      * 单例模式保证
      * 避免重复创建实例
@@ -66,41 +91,197 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
     private final RouteProcess routeProcess = RouteProcess.getInstance();
     private final CicadaBeanManager cicadaBeanManager = CicadaBeanManager.getInstance();
     private final GlobalHandelException exceptionHandle = cicadaBeanManager.exceptionHandle();
-    private Exception exception;
+    private final ExecutorManager executorManager = ExecutorManager.getInstance();
+    private final StaticFileHandler staticFileHandler = new StaticFileHandler(appConfig);
+    private final ConcurrencyLimiter concurrencyLimiter = appConfig.isConcurrencyLimit()
+            ? new ConcurrencyLimiter(CicadaConstant.SystemProperties.APPLICATION_LIMIT_NAME, appConfig.getConcurrencyLimitInitial(),
+            appConfig.getConcurrencyLimitMin(), appConfig.getConcurrencyLimitMax())
+            : null;
 
     @Override
-    public void channelRead0(ChannelHandlerContext ctx, DefaultHttpRequest httpRequest) {
-        CicadaRequest cicadaRequest = CicadaHttpRequest.init(httpRequest);
-        CicadaResponse cicadaResponse = CicadaHttpResponse.init();
+    public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            HttpRequest httpRequest = (HttpRequest) msg;
+            // pipelining下按请求顺序编号，保证响应顺序
+            long sequence = ResponseSequencer.get(ctx.channel()).next();
+            InboundRequest inbound = new InboundRequest(httpRequest, sequence);
+            inbound.staticFile = staticFileHandler.accept(httpRequest);
+            if (HttpUtil.getContentLength(httpRequest, -1L) > appConfig.getMaxBodySize()) {
+                inbound.discard = true;
+                tooLargeResponse(ctx, httpRequest, sequence);
+            } else if (HttpUtil.is100ContinueExpected(httpRequest)) {
+                // 前面的响应还没写完时，100 Continue 也要排队
+                ResponseSequencer.get(ctx.channel()).writeInterim(ctx, sequence,
+                        new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE, Unpooled.EMPTY_BUFFER));
+            }
+            ctx.channel().attr(INBOUND).set(inbound);
+        }
 
-        // set current thread request and response
-        CicadaContext.setContext(new CicadaContext(cicadaRequest, cicadaResponse));
+        if (!(msg instanceof HttpContent)) {
+            return;
+        }
+        InboundRequest inbound = ctx.channel().attr(INBOUND).get();
+        if (inbound == null) {
+            return;
+        }
+
+        // 请求体按块读取：小于阈值保存在池化内存中，超过阈值写入临时文件，超过上限返回413
+        ByteBuf chunk = ((HttpContent) msg).content();
+        if (!inbound.discard && chunk.isReadable()) {
+            if (inbound.body == null) {
+                inbound.body = new RequestBody(appConfig.getBodyMemoryThreshold(), appConfig.getMaxBodySize());
+            }
+            if (!inbound.body.append(chunk)) {
+                inbound.discard = true;
+                tooLargeResponse(ctx, inbound.request, inbound.sequence);
+            }
+        }
+
+        if (msg instanceof LastHttpContent) {
+            ctx.channel().attr(INBOUND).set(null);
+            if (inbound.staticFile) {
+                // 静态文件直接在I/O线程发送，不经过拦截器和路由
+                if (inbound.body != null) {
+                    inbound.body.close();
+                }
+                if (!inbound.discard) {
+                    staticFileHandler.handle(ctx, inbound.request, inbound.sequence);
+                }
+            } else if (!inbound.discard) {
+                route(ctx, inbound.request, inbound.sequence,
+                        inbound.body == null ? RequestBody.empty() : inbound.body);
+            }
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // 连接在请求体读完前断开，释放已缓存的内容和临时文件
+        InboundRequest inbound = ctx.channel().attr(INBOUND).getAndSet(null);
+        if (inbound != null && inbound.body != null) {
+            inbound.body.close();
+        }
+        // 排队中的响应不会再写出，释放 buffer 和文件
+        ResponseSequencer.get(ctx.channel()).close();
+        super.channelInactive(ctx);
+    }
 
+    /**
+     * run the route on the event loop or hand it over to its executor
+     *
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param body complete request body
+     */
+    private void route(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence, RequestBody body) {
+        // path只解码、匹配一次：执行器、舱壁、优先级、截止时间和路径变量都来自同一个路由
+        QueryStringDecoder queryStringDecoder = PathUtil.decoder(httpRequest.uri());
+        Route route;
+        String[] variables;
         try {
-            // request uri
-            String uri = cicadaRequest.getUrl();
-            QueryStringDecoder queryStringDecoder = new QueryStringDecoder(URLDecoder.decode(httpRequest.uri(), "utf-8"));
+            route = routerScanner.lookup(queryStringDecoder.path());
+            variables = routerScanner.pathVariables(route, queryStringDecoder.path());
+        } catch (IllegalArgumentException e) {
+            // 非法的编码，在dispatch中按请求异常返回
+            route = null;
+            variables = null;
+        }
+        // 排队之前占用并发许可：超过限制直接返回预编码的503，RTT从准入开始计算，包含排队时间
+        if (route != null && concurrencyLimiter != null && !concurrencyLimiter.tryAcquire()) {
+            body.close();
+            shedResponse(ctx, httpRequest, sequence);
+            return;
+        }
+        long admitted = System.nanoTime();
+        // 截止时间从请求到达开始计算，包含在线程池中排队的时间
+        RequestTimeout timeout = timeout(ctx, httpRequest, sequence, route);
+        Executor executor = executorManager.executor(route);
+        Route matched = route;
+        String[] pathVariables = variables;
+        if (executor == null) {
+            dispatch(ctx, httpRequest, sequence, body, timeout, queryStringDecoder, matched, pathVariables, admitted);
+            return;
+        }
 
-            // check Root Path
-            appConfig.checkRootPath(uri, queryStringDecoder);
+        // 业务逻辑交给业务线程池、舱壁或虚拟线程执行，避免阻塞I/O线程
+        try {
+            executor.execute(new PrioritizedTask(route == null ? Priority.NORMAL : route.getPriority(),
+                    () -> dispatch(ctx, httpRequest, sequence, body, timeout, queryStringDecoder, matched, pathVariables, admitted)));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Reject request [{}]: {}", httpRequest.uri(), e.getMessage());
+            if (route != null && concurrencyLimiter != null) {
+                concurrencyLimiter.release(admitted);
+            }
+            body.close();
+            if (timeout == null || timeout.finish()) {
+                rejectResponse(ctx, httpRequest, sequence);
+            }
+        }
+    }
 
-            // route Action
-            //Class<?> actionClazz = routeAction(queryStringDecoder, appConfig);
+    /**
+     * start the timer answering 504 when the route is still running at its deadline
+     *
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param route matched route, may be null
+     * @return timeout of the request, null when the route has none
+     */
+    private RequestTimeout timeout(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence, Route route) {
+        if (route == null || route.getTimeout() <= 0) {
+            return null;
+        }
+        RequestTimeout timeout = new RequestTimeout(Deadline.after(route.getTimeout(), TimeUnit.MILLISECONDS));
+        timeout.schedule(ctx.executor(), () -> timeoutResponse(ctx, httpRequest, sequence));
+        return timeout;
+    }
 
-            //build paramMap
-            Param paramMap = buildParamMap(queryStringDecoder);
+    /**
+     * execute interceptors and route action, then write the response
+     *
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param body complete request body, closed once the response is built
+     * @param timeout deadline of the request, may be null
+     * @param queryStringDecoder decoder of the request uri
+     * @param route route matched on the I/O thread, null when none matches
+     * @param variables values of the path variables of the route, may be null
+     * @param admitted time the request was admitted to the concurrency limit
+     */
+    private void dispatch(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence, RequestBody body,
+                          RequestTimeout timeout, QueryStringDecoder queryStringDecoder, Route route, String[] variables,
+                          long admitted) {
+        CicadaHttpRequest cicadaRequest = CicadaHttpRequest.init(httpRequest, queryStringDecoder);
+        cicadaRequest.setBody(body);
+        cicadaRequest.setRemoteAddress(ctx.channel().remoteAddress());
+        CicadaHttpResponse cicadaResponse = CicadaHttpResponse.init();
+        cicadaResponse.setStreamOpener(() -> openStream(ctx, httpRequest, sequence, timeout));
 
-            //load interceptors
-            interceptProcess.loadInterceptors();
+        // set current thread request and response
+        CicadaContext context = CicadaContext.newInstance(cicadaRequest, cicadaResponse);
+        if (timeout != null) {
+            context.setDeadline(timeout.deadline());
+        }
+        CicadaContext previous = ContextPropagation.attach(context);
 
-            //interceptor before
-            boolean access = interceptProcess.processBefore(paramMap);
-            if (!access) {
-                // 权限验证失败
-                // 限流控制
-                return;
+        Param paramMap = null;
+        boolean failed = false;
+        boolean async = false;
+        try {
+            if (timeout != null && timeout.deadline().isExpired()) {
+                // 在队列中等待时已经超时，不再执行路由
+                throw new CicadaException(StatusEnum.GATEWAY_TIMEOUT);
             }
 
+            // request uri
+            String uri = cicadaRequest.getUrl();
+
+            // check Root Path
+            appConfig.checkRootPath(uri, queryStringDecoder);
+
             // execute Method
             /**
              * GET /user/get?userId=123
@@ -112,29 +293,231 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
              * 5. 反射调用方法
              * 6. 处理返回值
              */
-            Method method = routerScanner.routeMethod(queryStringDecoder);
-            Object result = routeProcess.invoke(method, queryStringDecoder);
+            if (route == null) {
+                routerScanner.unmatched(queryStringDecoder.path());
+            } else if (variables != null) {
+                cicadaRequest.setPathVariables(route.getVariableNames(), variables);
+            }
+
+            // 启动时已按include/exclude为每个路由编译好拦截器链，没有拦截器时不构建paramMap
+            CicadaInterceptor[] interceptors = route == null ? InterceptProcess.NONE : route.getInterceptors();
+            if (interceptors.length > 0) {
+                //build paramMap
+                paramMap = buildParamMap(queryStringDecoder);
+
+                //interceptor before
+                boolean access = interceptProcess.processBefore(interceptors, paramMap);
+                if (!access) {
+                    // 权限验证失败
+                    // 限流控制
+                    return;
+                }
+            }
+
+            String cacheKey = null;
+            Map<String, String> interceptorHeaders = null;
+            if (route != null && route.getCacheable() != null && HttpMethod.GET.equals(httpRequest.method())) {
+                cacheKey = ResponseCache.key(queryStringDecoder.path(), queryStringDecoder, route.getCacheable().keys());
+                if (serveCached(cacheKey)) {
+                    // 命中缓存，不执行路由也不再序列化
+                    interceptProcess.processAfter(interceptors, paramMap);
+                    return;
+                }
+                if (interceptors.length > 0) {
+                    // 拦截器设置的header属于本次请求，不进缓存
+                    interceptorHeaders = new HashMap<>(CicadaContext.getResponse().getHeaders());
+                }
+            }
+
+            Object result = routeProcess.invoke(route, queryStringDecoder);
+
+            if (result instanceof CompletionStage) {
+                // 异步返回：不占用线程，future完成后恢复上下文再写响应
+                async = true;
+                Param params = paramMap;
+                String key = cacheKey;
+                Map<String, String> before = interceptorHeaders;
+                ((CompletionStage<?>) result).whenComplete((value, error) ->
+                        complete(ctx, httpRequest, sequence, body, timeout, context, route, key, before, params, admitted, value, error));
+                return;
+            }
 
             handleMethodResult(result);
+            if (cacheKey != null) {
+                cacheResponse(route.getCacheable(), cacheKey, interceptorHeaders);
+            }
 
             //WorkAction action = (WorkAction) actionClazz.newInstance();
             //action.execute(CicadaContext.getContext(), paramMap);
 
 
             // interceptor after
-            interceptProcess.processAfter(paramMap);
+            interceptProcess.processAfter(interceptors, paramMap);
 
         } catch (Exception e) {
+            failed = true;
             exceptionCaught(ctx, e);
         } finally {
-            // Response
-            responseContent(ctx);
+            if (!async) {
+                finish(ctx, httpRequest, sequence, body, timeout, context, route, paramMap, admitted, failed);
+            }
 
-            // remove cicada thread context
-            CicadaContext.removeContext();
+            // 恢复线程原来的上下文(通常为null)，不删除thread local条目
+            ContextPropagation.restore(previous);
         }
     }
 
+    /**
+     * continuation of a route returning a CompletionStage, runs on the thread completing it
+     *
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param body complete request body
+     * @param timeout deadline of the request, may be null
+     * @param context context of the request, restored on this thread
+     * @param route matched route
+     * @param cacheKey key the response is cached under, null when it is not cached
+     * @param interceptorHeaders headers set by the before interceptors, not cached
+     * @param paramMap parameters for the after interceptors
+     * @param admitted time the request was admitted to the concurrency limit
+     * @param value result of the route
+     * @param error failure of the route, null on success
+     */
+    private void complete(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence, RequestBody body,
+                          RequestTimeout timeout, CicadaContext context, Route route, String cacheKey,
+                          Map<String, String> interceptorHeaders, Param paramMap, long admitted, Object value, Throwable error) {
+        // 完成future的线程可能正在处理另一个请求，结束后恢复它原来的上下文
+        CicadaContext previous = ContextPropagation.attach(context);
+        boolean failed = false;
+        try {
+            if (error != null) {
+                failed = true;
+                exceptionCaught(ctx, unwrap(error));
+            } else {
+                handleMethodResult(value);
+                if (cacheKey != null) {
+                    cacheResponse(route.getCacheable(), cacheKey, interceptorHeaders);
+                }
+                interceptProcess.processAfter(route.getInterceptors(), paramMap);
+            }
+        } catch (Exception e) {
+            failed = true;
+            exceptionCaught(ctx, e);
+        } finally {
+            finish(ctx, httpRequest, sequence, body, timeout, context, route, paramMap, admitted, failed);
+            ContextPropagation.restore(previous);
+        }
+    }
+
+    /**
+     * @return the exception thrown by the route, without CompletionException/ExecutionException
+     */
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception ? (Exception) cause : new CicadaException(cause);
+    }
+
+    /**
+     * write the response, or finish the stream, then release the request body and recycle the request objects
+     *
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param body complete request body
+     * @param timeout deadline of the request, may be null
+     * @param context context of the request
+     * @param route matched route, may be null
+     * @param paramMap parameters, null when the route has no interceptors or failed before they were built
+     * @param admitted time the request was admitted to the concurrency limit, released here when it is enabled
+     * @param failed the route or an interceptor threw
+     */
+    private void finish(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence, RequestBody body,
+                        RequestTimeout timeout, CicadaContext context, Route route, Param paramMap, long admitted,
+                        boolean failed) {
+        if (route != null && concurrencyLimiter != null) {
+            concurrencyLimiter.release(admitted);
+        }
+        CicadaResponse cicadaResponse = CicadaContext.getResponse();
+        ResponseStream stream = cicadaResponse.getStream();
+        if (stream == null) {
+            if (timeout == null || timeout.finish()) {
+                // Response
+                responseContent(ctx, httpRequest, sequence);
+            } else {
+                // 已经返回了504，丢弃路由的结果
+                cicadaResponse.setHttpContent((ByteBuf) null);
+            }
+        } else if (failed) {
+            // 响应头已发出，无法再返回错误内容，断开连接让客户端感知响应不完整
+            cicadaResponse.setHttpContent((ByteBuf) null);
+            stream.abort();
+        } else {
+            cicadaResponse.setHttpContent((ByteBuf) null);
+            stream.close();
+        }
+
+        body.close();
+
+        // 被其他线程持有的上下文不能复用；虚拟线程每个任务一个新的Recycler栈，复用没有收益
+        if (appConfig.isRecycle() && !context.isCaptured() && !executorManager.isVirtual(route)) {
+            // 响应已交给Netty写出，请求对象归还给当前线程的对象池供下个请求复用
+            context.recycle();
+            if (paramMap instanceof ParamMap) {
+                ((ParamMap) paramMap).recycle();
+            }
+        }
+    }
+
+    /**
+     * answer from the response cache
+     *
+     * @param cacheKey key of the request
+     * @return true when the response was set from the cache
+     */
+    private boolean serveCached(String cacheKey) {
+        CachedResponse cached = ResponseCache.getInstance().get(cacheKey);
+        if (cached == null) {
+            return false;
+        }
+        ByteBuf content = cached.retainedContent();
+        if (content == null) {
+            return false;
+        }
+        CicadaResponse cicadaResponse = CicadaContext.getResponse();
+        cicadaResponse.setContentType(cached.getContentType());
+        cicadaResponse.getHeaders().putAll(cached.getHeaders());
+        cicadaResponse.setHttpContent(content);
+        return true;
+    }
+
+    /**
+     * keep a copy of the encoded response, only 200 without cookies and streams is cached.
+     * Headers of the before interceptors are left out, they run again on a hit.
+     *
+     * @param cacheable cache settings of the route
+     * @param cacheKey key of the request
+     * @param interceptorHeaders headers before the route ran, null when there are no interceptors
+     */
+    private void cacheResponse(Cacheable cacheable, String cacheKey, Map<String, String> interceptorHeaders) {
+        CicadaResponse cicadaResponse = CicadaContext.getResponse();
+        ByteBuf content = cicadaResponse.content();
+        if (content == null || cicadaResponse.getStatus() != HttpResponseStatus.OK.code()
+                || cicadaResponse.getStream() != null || !cicadaResponse.cookies().isEmpty()) {
+            return;
+        }
+        Map<String, String> headers = cicadaResponse.getHeaders();
+        if (interceptorHeaders != null && !interceptorHeaders.isEmpty()) {
+            // 只缓存路由新增或改写的header
+            headers = new HashMap<>(headers);
+            headers.entrySet().removeIf(header -> header.getValue().equals(interceptorHeaders.get(header.getKey())));
+        }
+        ResponseCache.getInstance().put(cacheKey, cacheable.ttl(), cicadaResponse.getContentType(), headers, content);
+    }
+
     /**
      * 处理方法调用的返回结果
      *
@@ -146,7 +529,7 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
         }
 
         // 如果响应内容已经设置，则不处理返回值
-        if (CicadaContext.getResponse().getHttpContent() != null) {
+        if (CicadaContext.getResponse().content() != null) {
             return;
         }
 
@@ -167,27 +550,140 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
     /**
      * Response
      * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
      */
-    private void responseContent(ChannelHandlerContext ctx) {
+    private void responseContent(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence) {
         // 1. 从上下文获取响应内容
         CicadaResponse cicadaResponse = CicadaContext.getResponse();
-        String context = cicadaResponse.getHttpContent();
+        ByteBuf content = cicadaResponse.content();
 
-        // 2. 将字符串内容转换为ByteBuf
-        ByteBuf buf = Unpooled.wrappedBuffer(context.getBytes(StandardCharsets.UTF_8));
+        // 2. 响应体已直接编码在池化ByteBuf中，无需再转换
+        ByteBuf buf = content == null ? Unpooled.EMPTY_BUFFER : content;
         
         // 3. 创建HTTP响应对象
         DefaultFullHttpResponse response = new DefaultFullHttpResponse(
             HttpVersion.HTTP_1_1,    // HTTP版本
-            HttpResponseStatus.OK,    // 状态码
+            HttpResponseStatus.valueOf(cicadaResponse.getStatus()),    // 状态码
             buf                      // 响应内容
         );
 
         // 4. 构建响应头
         buildHeader(response);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, buf.readableBytes());
 
         // 5. 写入响应并刷新
-        ctx.writeAndFlush(response);
+        writeResponse(ctx, httpRequest, sequence, response);
+    }
+
+    /**
+     * send the headers of a chunked response, the body is pulled by ChunkedWriteHandler
+     * while the channel is writable
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param timeout deadline of the request, it no longer applies once the headers are sent
+     * @return stream of the body
+     */
+    private ResponseStream openStream(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence,
+                                      RequestTimeout timeout) {
+        if (ctx.executor().inEventLoop()) {
+            // 写满时会阻塞等待客户端，不能在I/O线程执行
+            throw new CicadaException("Streaming response requires a route running in worker or virtual mode");
+        }
+        if (timeout != null && !timeout.finish()) {
+            throw new CicadaException(StatusEnum.GATEWAY_TIMEOUT);
+        }
+
+        ResponseStream stream = new ResponseStream(ctx.channel(), ctx.pipeline().get(ChunkedWriteHandler.class));
+        DefaultHttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.valueOf(CicadaContext.getResponse().getStatus()));
+        buildHeader(response);
+        HttpUtil.setTransferEncodingChunked(response, true);
+
+        writeResponse(ctx, httpRequest, sequence, response, new HttpChunkedInput(stream.input()));
+        return stream;
+    }
+
+    /**
+     * Response 503 when the worker pool is saturated
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     */
+    private void rejectResponse(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence) {
+        DefaultFullHttpResponse response = new DefaultFullHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.SERVICE_UNAVAILABLE, Unpooled.EMPTY_BUFFER);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+        writeResponse(ctx, httpRequest, sequence, response);
+    }
+
+    /**
+     * Response 504 when the route is still running at its deadline, its result is dropped later
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     */
+    private void timeoutResponse(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence) {
+        DefaultFullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.valueOf(StatusEnum.GATEWAY_TIMEOUT.httpStatus()), ErrorResponses.body(StatusEnum.GATEWAY_TIMEOUT));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, CicadaConstant.ContentType.JSON);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        writeResponse(ctx, httpRequest, sequence, response);
+    }
+
+    /**
+     * Response the preencoded 503 for a request over the concurrency limit, before it is queued
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     */
+    private void shedResponse(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence) {
+        DefaultFullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.SERVICE_UNAVAILABLE, ErrorResponses.body(StatusEnum.SERVICE_UNAVAILABLE));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, CicadaConstant.ContentType.JSON);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        writeResponse(ctx, httpRequest, sequence, response);
+    }
+
+    /**
+     * Response 413 and close the connection, the rest of the body is discarded
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     */
+    private void tooLargeResponse(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence) {
+        DefaultFullHttpResponse response = new DefaultFullHttpResponse(
+                HttpVersion.HTTP_1_1, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE, Unpooled.EMPTY_BUFFER);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+        HttpUtil.setKeepAlive(response, false);
+        writeResponse(ctx, httpRequest, sequence, response);
+    }
+
+    /**
+     * write back on the event loop of the channel in request order, the action may run on a worker thread.
+     * HttpServerKeepAliveHandler closes the connection after the response when keep-alive is off.
+     * @param ctx ChannelHandlerContext
+     * @param httpRequest request
+     * @param sequence request sequence of the channel
+     * @param response response head
+     * @param body messages following the head, e.g. a chunked input or a file region
+     */
+    static void writeResponse(ChannelHandlerContext ctx, HttpRequest httpRequest, long sequence,
+                              HttpResponse response, Object... body) {
+        boolean keepAlive = HttpUtil.isKeepAlive(httpRequest) && HttpUtil.isKeepAlive(response);
+        HttpUtil.setKeepAlive(response.headers(), httpRequest.protocolVersion(), keepAlive);
+
+        Object[] messages = new Object[body.length + 1];
+        messages[0] = response;
+        System.arraycopy(body, 0, messages, 1, body.length);
+
+        ResponseSequencer sequencer = ResponseSequencer.get(ctx.channel());
+        if (ctx.executor().inEventLoop()) {
+            sequencer.write(ctx, sequence, messages);
+        } else {
+            ctx.executor().execute(() -> sequencer.write(ctx, sequence, messages));
+        }
     }
 
     /**
@@ -198,7 +694,7 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
      */
     private Param buildParamMap(QueryStringDecoder queryStringDecoder) {
         Map<String, List<String>> parameters = queryStringDecoder.parameters();
-        Param paramMap = new ParamMap();
+        Param paramMap = ParamMap.newInstance();
         for (Map.Entry<String, List<String>> stringListEntry : parameters.entrySet()) {
             String key = stringListEntry.getKey();
             List<String> value = stringListEntry.getValue();
@@ -208,15 +704,34 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
     }
 
 
+    /**
+     * set the status of the exception and let the global exception handle build the body,
+     * the preencoded error body is used when there is no handle or it wrote nothing
+     */
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        exception = (Exception) cause;
         if (CicadaException.isResetByPeer(cause.getMessage())) {
             return;
         }
+        CicadaContext context = CicadaContext.getContext();
+        if (context == null) {
+            // pipeline异常，不属于任何请求
+            LOGGER.warn("Close channel on exception: {}", cause.toString());
+            ctx.close();
+            return;
+        }
 
+        Exception exception = cause instanceof Exception ? (Exception) cause : new CicadaException(cause);
+        CicadaResponse cicadaResponse = CicadaContext.getResponse();
+        cicadaResponse.setStatus(ErrorResponses.status(exception));
         if (exceptionHandle != null) {
-            exceptionHandle.resolveException(CicadaContext.getContext(), exception);
+            exceptionHandle.resolveException(context, exception);
+        } else {
+            cicadaResponse.setHttpContent((ByteBuf) null);
+        }
+        if (cicadaResponse.content() == null) {
+            cicadaResponse.setContentType(CicadaConstant.ContentType.JSON);
+            cicadaResponse.setHttpContent(ErrorResponses.body(exception));
         }
     }
 
@@ -225,17 +740,36 @@ public final class HttpDispatcher extends SimpleChannelInboundHandler<DefaultHtt
      *
      * @param response
      */
-    private void buildHeader(DefaultFullHttpResponse response) {
+    private void buildHeader(HttpResponse response) {
         CicadaResponse cicadaResponse = CicadaContext.getResponse();
 
         HttpHeaders headers = response.headers();
-        headers.setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
         headers.set(HttpHeaderNames.CONTENT_TYPE, cicadaResponse.getContentType());
 
+        for (Map.Entry<String, String> header : cicadaResponse.getHeaders().entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+
         List<Cookie> cookies = cicadaResponse.cookies();
         for (Cookie cookie : cookies) {
             headers.add(CicadaConstant.ContentType.SET_COOKIE, io.netty.handler.codec.http.cookie.ServerCookieEncoder.LAX.encode(cookie));
         }
 
     }
+
+    /**
+     * request whose body is being read
+     */
+    private static final class InboundRequest {
+        private final HttpRequest request;
+        private final long sequence;
+        private RequestBody body;
+        private boolean discard;
+        private boolean staticFile;
+
+        private InboundRequest(HttpRequest request, long sequence) {
+            this.request = request;
+            this.sequence = sequence;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import top.crossoverjie.cicada.server.context.Deadline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Function: deadline of one request. The route and the timer race to answer it,
+ * whoever comes first writes the response and the other one is dropped.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class RequestTimeout extends AtomicBoolean {
+
+    private final Deadline deadline;
+
+    private volatile ScheduledFuture<?> timer;
+
+    RequestTimeout(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    Deadline deadline() {
+        return deadline;
+    }
+
+    /**
+     * @param executor event loop of the channel
+     * @param onTimeout writes the timeout response, only runs when the route has not answered yet
+     */
+    void schedule(EventExecutor executor, Runnable onTimeout) {
+        timer = executor.schedule(() -> {
+            if (compareAndSet(false, true)) {
+                onTimeout.run();
+            }
+        }, deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * claim the response for the route
+     * @return false when the timeout response was already sent
+     */
+    boolean finish() {
+        if (!compareAndSet(false, true)) {
+            return false;
+        }
+        ScheduledFuture<?> scheduled = timer;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Function: keep pipelined responses in request order.
+ *
+ * Actions running on a worker pool may finish out of order, HTTP/1.1 requires the
+ * responses of one connection to follow the order of its requests. Only touched
+ * from the channel's event loop, so no locking is needed. Responses still queued
+ * when the channel goes inactive are released.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class ResponseSequencer {
+
+    private static final AttributeKey<ResponseSequencer> KEY = AttributeKey.valueOf("cicada.sequencer");
+
+    private long nextRequest;
+
+    private long nextResponse;
+
+    /**
+     * responses finished ahead of their turn
+     */
+    private Map<Long, Object[]> pending;
+
+    /**
+     * 100 Continue waiting for the turn of its request
+     */
+    private Map<Long, HttpResponse> interim;
+
+    /**
+     * set when the channel is inactive, later responses are released instead of written
+     */
+    private boolean closed;
+
+    static ResponseSequencer get(Channel channel) {
+        ResponseSequencer sequencer = channel.attr(KEY).get();
+        if (sequencer == null) {
+            sequencer = new ResponseSequencer();
+            channel.attr(KEY).set(sequencer);
+        }
+        return sequencer;
+    }
+
+    /**
+     * @return sequence of a new request, called when it is read
+     */
+    long next() {
+        return nextRequest++;
+    }
+
+    /**
+     * write the response once every earlier one has been written
+     * @param ctx ChannelHandlerContext
+     * @param sequence sequence of the request
+     * @param response response
+     */
+    void write(ChannelHandlerContext ctx, long sequence, HttpResponse response) {
+        write(ctx, sequence, new Object[]{response});
+    }
+
+    /**
+     * write the messages of a response once every earlier response has been written
+     * @param ctx ChannelHandlerContext
+     * @param sequence sequence of the request
+     * @param messages response head followed by its body, e.g. a chunked input or a file region
+     */
+    void write(ChannelHandlerContext ctx, long sequence, Object[] messages) {
+        if (closed) {
+            release(messages);
+            return;
+        }
+        if (sequence != nextResponse) {
+            if (pending == null) {
+                pending = new HashMap<>(8);
+            }
+            pending.put(sequence, messages);
+            return;
+        }
+
+        doWrite(ctx, messages);
+        nextResponse++;
+        if (pending != null) {
+            Object[] next;
+            while ((next = pending.remove(nextResponse)) != null) {
+                doWrite(ctx, next);
+                nextResponse++;
+            }
+        }
+        if (interim != null) {
+            interim.keySet().removeIf(request -> request < nextResponse);
+            HttpResponse response = interim.remove(nextResponse);
+            if (response != null) {
+                ctx.writeAndFlush(response);
+            }
+        }
+    }
+
+    /**
+     * write an interim response (100 Continue) of the request once every earlier response has been written,
+     * it does not take the place of the final response
+     * @param ctx ChannelHandlerContext
+     * @param sequence sequence of the request
+     * @param response interim response
+     */
+    void writeInterim(ChannelHandlerContext ctx, long sequence, HttpResponse response) {
+        if (closed) {
+            ReferenceCountUtil.release(response);
+            return;
+        }
+        if (sequence != nextResponse) {
+            if (interim == null) {
+                interim = new HashMap<>(4);
+            }
+            interim.put(sequence, response);
+            return;
+        }
+        ctx.writeAndFlush(response);
+    }
+
+    /**
+     * release the responses still waiting for their turn, called when the channel is inactive
+     */
+    void close() {
+        closed = true;
+        if (pending != null) {
+            pending.values().forEach(ResponseSequencer::release);
+            pending = null;
+        }
+        if (interim != null) {
+            interim.values().forEach(ReferenceCountUtil::release);
+            interim = null;
+        }
+    }
+
+    /**
+     * full responses and file regions are reference counted, chunked inputs hold an open file
+     */
+    private static void release(Object[] messages) {
+        for (Object message : messages) {
+            if (message instanceof ChunkedInput) {
+                try {
+                    ((ChunkedInput<?>) message).close();
+                } catch (Exception e) {
+                    // the connection is gone, nothing to report to
+                }
+            } else {
+                ReferenceCountUtil.release(message);
+            }
+        }
+    }
+
+    private void doWrite(ChannelHandlerContext ctx, Object[] messages) {
+        int last = messages.length - 1;
+        for (int i = 0; i < last; i++) {
+            ctx.write(messages[i]);
+        }
+        ctx.writeAndFlush(messages[last]);
+    }
+}
@@ -0,0 +1,562 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.config.AppConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_STATIC_NAME;
+
+/**
+ * Function: serve files of [cicada.static.dir] under rootPath + [cicada.static.path].
+ *
+ * Plain HTTP/1.1 connections send the file with a FileRegion (sendfile), TLS connections and
+ * HTTP/2 streams read it in chunks through ChunkedWriteHandler, so a download never copies the file into the heap.
+ * Small files are kept in a bounded LRU cache of direct buffers.
+ * With [cicada.compression] on, a gzip variant is cached next to a small file and a
+ * sibling "name.gz" is sent for a large one, so the same bytes are never compressed twice.
+ * The event loop only stats and opens files: a small file is read and compressed on the
+ * [cicada.static] thread, and it is streamed like a large one until its cache entry is ready.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class StaticFileHandler {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(StaticFileHandler.class);
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>(32);
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=UTF-8");
+        CONTENT_TYPES.put("htm", "text/html; charset=UTF-8");
+        CONTENT_TYPES.put("css", "text/css; charset=UTF-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=UTF-8");
+        CONTENT_TYPES.put("json", "application/json; charset=UTF-8");
+        CONTENT_TYPES.put("txt", "text/plain; charset=UTF-8");
+        CONTENT_TYPES.put("xml", "application/xml; charset=UTF-8");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("webp", "image/webp");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("wasm", "application/wasm");
+        CONTENT_TYPES.put("pdf", "application/pdf");
+        CONTENT_TYPES.put("zip", "application/zip");
+        CONTENT_TYPES.put("mp4", "video/mp4");
+        CONTENT_TYPES.put("mp3", "audio/mpeg");
+    }
+
+    /**
+     * null when static files are disabled
+     */
+    private final Path directory;
+
+    /**
+     * request path prefix, e.g. /cicada-example/static/
+     */
+    private final String prefix;
+
+    private final long cacheSize;
+
+    private final int cacheFileSize;
+
+    private final boolean compression;
+
+    private final int compressionLevel;
+
+    private final int compressionMinSize;
+
+    /**
+     * one future per file, completed with null when the file could not be loaded
+     */
+    private final Map<Path, CompletableFuture<CachedFile>> cache = new ConcurrentHashMap<>(64);
+
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    /**
+     * reads and compresses the small files, null when static files are disabled
+     */
+    private final Executor loader;
+
+    StaticFileHandler(AppConfig appConfig) {
+        this(appConfig, null);
+    }
+
+    /**
+     * @param loader executor for reading the small files, null for the [cicada.static] thread
+     */
+    StaticFileHandler(AppConfig appConfig, Executor loader) {
+        Path directory = null;
+        if (appConfig.getStaticDir() != null) {
+            try {
+                directory = Paths.get(appConfig.getStaticDir()).toRealPath();
+            } catch (IOException e) {
+                LOGGER.warn("Static files disabled, [cicada.static.dir] {} is not readable", appConfig.getStaticDir());
+            }
+        }
+        this.directory = directory;
+        String staticPath = appConfig.getStaticPath().startsWith("/") ? appConfig.getStaticPath() : "/" + appConfig.getStaticPath();
+        this.prefix = appConfig.getRootPath() + staticPath + (staticPath.endsWith("/") ? "" : "/");
+        this.cacheSize = appConfig.getStaticCacheSize();
+        this.cacheFileSize = appConfig.getStaticCacheFileSize();
+        this.compression = appConfig.isCompression();
+        this.compressionLevel = appConfig.getCompressionLevel();
+        this.compressionMinSize = appConfig.getCompressionMinSize();
+        if (loader == null && directory != null) {
+            loader = Executors.newSingleThreadExecutor(new DefaultThreadFactory(APPLICATION_STATIC_NAME.replace('.', '-'), true));
+        }
+        this.loader = loader;
+    }
+
+    /**
+     * @param request request
+     * @return true when the request is for a static file
+     */
+    boolean accept(HttpRequest request) {
+        if (directory == null || !request.uri().startsWith(prefix)) {
+            return false;
+        }
+        HttpMethod method = request.method();
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+    }
+
+    /**
+     * write the file, a part of it or 304/404/416
+     * @param ctx ChannelHandlerContext
+     * @param request request
+     * @param sequence request sequence of the channel
+     */
+    void handle(ChannelHandlerContext ctx, HttpRequest request, long sequence) {
+        Path file = resolve(request.uri());
+        BasicFileAttributes attributes = null;
+        if (file != null) {
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                // not found
+            }
+        }
+        if (attributes == null || !attributes.isRegularFile()) {
+            HttpDispatcher.writeResponse(ctx, request, sequence, empty(HttpResponseStatus.NOT_FOUND, 0));
+            return;
+        }
+
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String lastModifiedText = DateFormatter.format(new Date(lastModified));
+
+        if (notModified(request, lastModified)) {
+            HttpResponse response = empty(HttpResponseStatus.NOT_MODIFIED, length);
+            response.headers().set(HttpHeaderNames.LAST_MODIFIED, lastModifiedText);
+            HttpDispatcher.writeResponse(ctx, request, sequence, response);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.headers().get(HttpHeaderNames.RANGE);
+        String ifRange = request.headers().get(HttpHeaderNames.IF_RANGE);
+        boolean partial = false;
+        if (range != null && (ifRange == null || ifRange.equals(lastModifiedText))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == UNSATISFIABLE) {
+                HttpResponse response = empty(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE, 0);
+                response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + length);
+                HttpDispatcher.writeResponse(ctx, request, sequence, response);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+            }
+        }
+        long count = end - start + 1;
+        String contentType = contentType(file);
+
+        // the compressor never touches static files, they are compressed once here
+        HttpResponse response = ContentCompressor.identity(partial ? HttpResponseStatus.PARTIAL_CONTENT : HttpResponseStatus.OK);
+        HttpHeaders headers = response.headers();
+        headers.set(HttpHeaderNames.CONTENT_TYPE, contentType);
+        headers.set(HttpHeaderNames.LAST_MODIFIED, lastModifiedText);
+        headers.set(HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES);
+        headers.set(HttpHeaderNames.CONTENT_LENGTH, count);
+        if (partial) {
+            headers.set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        boolean gzip = false;
+        if (compression && ContentCompressor.isCompressible(contentType)) {
+            ContentCompressor.vary(headers);
+            gzip = !partial && length >= compressionMinSize
+                    && ContentCompressor.acceptsGzip(request.headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+        }
+
+        if (HttpMethod.HEAD.equals(request.method()) || count == 0) {
+            HttpDispatcher.writeResponse(ctx, request, sequence, response, LastHttpContent.EMPTY_LAST_CONTENT);
+            return;
+        }
+
+        CachedFile cachedFile = length <= cacheFileSize && length <= cacheSize
+                ? cached(file, length, lastModified, compression && ContentCompressor.isCompressible(contentType) && length >= compressionMinSize)
+                : null;
+        if (cachedFile != null) {
+            ByteBuf content = gzip ? cachedFile.gzip() : null;
+            if (content != null) {
+                headers.set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+                headers.set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+            } else {
+                content = cachedFile.slice((int) start, (int) count);
+            }
+            // null when the entry was evicted meanwhile, the file is streamed instead
+            if (content != null) {
+                HttpDispatcher.writeResponse(ctx, request, sequence, response, new DefaultLastHttpContent(content));
+                return;
+            }
+        }
+
+        try {
+            Path precompressed = gzip ? precompressed(file, lastModified) : null;
+            if (precompressed != null) {
+                file = precompressed;
+                count = Files.size(precompressed);
+                headers.set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+                headers.set(HttpHeaderNames.CONTENT_LENGTH, count);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            if (ctx.pipeline().get(SslHandler.class) == null && !(ctx.channel() instanceof Http2StreamChannel)) {
+                // sendfile, the bytes never enter user space
+                HttpDispatcher.writeResponse(ctx, request, sequence, response,
+                        new DefaultFileRegion(channel, start, count), LastHttpContent.EMPTY_LAST_CONTENT);
+            } else {
+                // TLS encrypts and HTTP/2 frames in user space, read chunk by chunk while the channel is writable
+                HttpDispatcher.writeResponse(ctx, request, sequence, response,
+                        new HttpChunkedInput(new ChunkedNioFile(channel, start, count, CHUNK_SIZE)));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Read static file {} failed: {}", file, e.getMessage());
+            HttpDispatcher.writeResponse(ctx, request, sequence, empty(HttpResponseStatus.NOT_FOUND, 0));
+        }
+    }
+
+    /**
+     * map the request path into the directory, null when it escapes the directory.
+     * The real path is checked too, a symlinked directory must not lead outside.
+     */
+    private Path resolve(String uri) {
+        String path = new QueryStringDecoder(uri).path().substring(prefix.length());
+        if (path.isEmpty() || path.indexOf('\0') >= 0) {
+            return null;
+        }
+        try {
+            Path file = directory.resolve(path).normalize();
+            return file.startsWith(directory) && file.toRealPath().startsWith(directory) ? file : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the sibling name.gz when it is at least as new as the file
+     */
+    private static Path precompressed(Path file, long lastModified) {
+        Path gz = file.resolveSibling(file.getFileName() + ".gz");
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(gz, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return attributes.isRegularFile() && attributes.lastModifiedTime().toMillis() >= lastModified ? gz : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean notModified(HttpRequest request, long lastModified) {
+        String ifModifiedSince = request.headers().get(HttpHeaderNames.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        Date since = DateFormatter.parseHttpDate(ifModifiedSince);
+        // http dates only have second precision
+        return since != null && lastModified / 1000 <= since.getTime() / 1000;
+    }
+
+    /**
+     * parse a single byte range, several ranges are answered with the whole file
+     * @return [start, end], null to send the whole file, UNSATISFIABLE for 416
+     */
+    static long[] parseRange(String range, long length) {
+        if (!range.startsWith(BYTES_UNIT) || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                if (length == 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                if (start >= length) {
+                    return UNSATISFIABLE;
+                }
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+                if (end < start) {
+                    return null;
+                }
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String type = dot < 0 ? null : CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase());
+        return type == null ? DEFAULT_CONTENT_TYPE : type;
+    }
+
+    private static HttpResponse empty(HttpResponseStatus status, long length) {
+        HttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, Unpooled.EMPTY_BUFFER);
+        // a 304 keeps the length of the representation, its body is always empty
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, length);
+        return response;
+    }
+
+    /**
+     * content of a small file, loaded once and reloaded when it changes.
+     * The cache is shared by all event loops, a miss starts the load and returns at once.
+     * @return the cached file, null while it is loading
+     */
+    private CachedFile cached(Path file, long length, long lastModified, boolean compressible) {
+        CompletableFuture<CachedFile> future = cache.get(file);
+        if (future != null && future.isDone()) {
+            CachedFile cachedFile = future.join();
+            if (cachedFile != null && cachedFile.lastModified == lastModified && cachedFile.content.readableBytes() == length) {
+                cachedFile.lastAccess = System.nanoTime();
+                return cachedFile;
+            }
+            evict(file, future);
+            future = null;
+        }
+        if (future == null) {
+            CompletableFuture<CachedFile> created = new CompletableFuture<>();
+            future = cache.putIfAbsent(file, created);
+            if (future == null) {
+                future = created;
+                try {
+                    loader.execute(() -> load(file, length, lastModified, compressible, created));
+                } catch (RejectedExecutionException e) {
+                    cache.remove(file, created);
+                    created.complete(null);
+                }
+            }
+        }
+        return future.isDone() ? future.join() : null;
+    }
+
+    /**
+     * runs on the loader, reads the file and compresses it when it is compressible
+     */
+    private void load(Path file, long length, long lastModified, boolean compressible, CompletableFuture<CachedFile> future) {
+        ByteBuf content = Unpooled.directBuffer((int) length);
+        ByteBuf gzip = null;
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (content.isWritable() && content.writeBytes(channel, content.writerIndex(), content.writableBytes()) >= 0) {
+                    // read until full or end of file
+                }
+                if (content.readableBytes() != length) {
+                    throw new IOException("File changed while reading");
+                }
+            }
+            if (compressible) {
+                gzip = Unpooled.directBuffer((int) length / 2);
+                try (OutputStream out = new LeveledGzipOutputStream(new ByteBufOutputStream(gzip), compressionLevel)) {
+                    content.getBytes(0, out, (int) length);
+                }
+                if (gzip.readableBytes() >= length) {
+                    gzip.release();
+                    gzip = null;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Read static file {} failed: {}", file, e.getMessage());
+            content.release();
+            if (gzip != null) {
+                gzip.release();
+            }
+            cache.remove(file, future);
+            future.complete(null);
+            return;
+        }
+
+        CachedFile cachedFile = new CachedFile(content, gzip, lastModified);
+        cachedBytes.addAndGet(cachedFile.size());
+        future.complete(cachedFile);
+        trim(file);
+    }
+
+    /**
+     * drop the least recently used files until the cache fits, the current file is kept
+     */
+    private void trim(Path current) {
+        while (cachedBytes.get() > cacheSize) {
+            Path eldest = null;
+            CompletableFuture<CachedFile> eldestFuture = null;
+            long eldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<Path, CompletableFuture<CachedFile>> entry : cache.entrySet()) {
+                CachedFile cachedFile = entry.getValue().getNow(null);
+                if (cachedFile != null && !entry.getKey().equals(current) && cachedFile.lastAccess < eldestAccess) {
+                    eldest = entry.getKey();
+                    eldestFuture = entry.getValue();
+                    eldestAccess = cachedFile.lastAccess;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            evict(eldest, eldestFuture);
+        }
+    }
+
+    /**
+     * only the thread that removes the entry releases it
+     */
+    private void evict(Path file, CompletableFuture<CachedFile> future) {
+        if (cache.remove(file, future)) {
+            CachedFile cachedFile = future.getNow(null);
+            if (cachedFile != null) {
+                cachedBytes.addAndGet(-cachedFile.release());
+            }
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+
+    private static final class CachedFile {
+        private final ByteBuf content;
+        private final long lastModified;
+
+        /**
+         * null when gzip does not pay off or the file is not compressible
+         */
+        private final ByteBuf gzip;
+
+        /**
+         * System.nanoTime() of the last hit, for the LRU order
+         */
+        private volatile long lastAccess = System.nanoTime();
+
+        private CachedFile(ByteBuf content, ByteBuf gzip, long lastModified) {
+            this.content = content;
+            this.gzip = gzip;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @return retained slice, null when the file was evicted meanwhile
+         */
+        private ByteBuf slice(int start, int count) {
+            try {
+                content.retain();
+            } catch (IllegalReferenceCountException e) {
+                return null;
+            }
+            return content.slice(start, count);
+        }
+
+        /**
+         * @return retained duplicate of the gzip variant, null when there is none or it was evicted meanwhile
+         */
+        private ByteBuf gzip() {
+            if (gzip == null) {
+                return null;
+            }
+            try {
+                gzip.retain();
+            } catch (IllegalReferenceCountException e) {
+                return null;
+            }
+            return gzip.duplicate();
+        }
+
+        private long size() {
+            return content.readableBytes() + (gzip == null ? 0 : gzip.readableBytes());
+        }
+
+        /**
+         * @return bytes freed
+         */
+        private long release() {
+            long size = size();
+            content.release();
+            if (gzip != null) {
+                gzip.release();
+            }
+            return size;
+        }
+    }
+}
@@ -1,14 +1,45 @@
 package top.crossoverjie.cicada.server.init;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2FrameCodec;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
 import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.AsciiString;
+import top.crossoverjie.cicada.server.config.AppConfig;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+import top.crossoverjie.cicada.server.handle.ContentCompressor;
 import top.crossoverjie.cicada.server.handle.HttpDispatcher;
 
+import javax.net.ssl.SSLException;
+import java.io.File;
+
 /**
  * Function:
  *
@@ -17,16 +48,155 @@ import top.crossoverjie.cicada.server.handle.HttpDispatcher;
  * @since JDK 1.8
  */
 public class CicadaInitializer extends ChannelInitializer<Channel> {
+    private final AppConfig appConfig = AppConfig.getInstance();
+
     // 使用final修饰，只创建一次HttpDispatcher实例
-    private final HttpDispatcher httpDispatcher = new HttpDispatcher() ;
+    private final ChannelHandler httpDispatcher;
+
+    // LoggingHandler是@Sharable的，开启时所有channel共用一个
+    private final LoggingHandler loggingHandler = appConfig.isWireLog() ? new LoggingHandler(LogLevel.INFO) : null;
+
+    /**
+     * null when TLS is off
+     */
+    private final SslContext sslContext;
+
+    /**
+     * HTTP/2 frames of a stream to HttpObject, stateless so all streams share it
+     */
+    private final Http2StreamFrameToHttpObjectCodec streamCodec = new Http2StreamFrameToHttpObjectCodec(true);
+
+    private final StreamInitializer streamInitializer = new StreamInitializer();
+
+    public CicadaInitializer() {
+        this(new HttpDispatcher());
+    }
+
+    CicadaInitializer(ChannelHandler httpDispatcher) {
+        this.httpDispatcher = httpDispatcher;
+        this.sslContext = appConfig.isSsl() ? sslContext() : null;
+    }
 
     @Override
     public void initChannel(Channel ch) throws Exception {
-        ch.pipeline()
-                .addLast(new HttpRequestDecoder())
-                .addLast(new HttpResponseEncoder())
-                .addLast(new ChunkedWriteHandler())
-                .addLast(httpDispatcher)
-                .addLast("logging", new LoggingHandler(LogLevel.INFO));
+        ChannelPipeline pipeline = ch.pipeline();
+        if (sslContext != null) {
+            pipeline.addLast("ssl", sslContext.newHandler(ch.alloc()));
+        }
+        if (appConfig.getFlushConsolidation() > 0) {
+            // 合并同一批次读取(pipelining)产生的多次flush，减少系统调用
+            pipeline.addLast("flush", new FlushConsolidationHandler(appConfig.getFlushConsolidation(), true));
+        }
+        if (loggingHandler != null) {
+            pipeline.addLast("logging", loggingHandler);
+        }
+
+        if (!appConfig.isHttp2()) {
+            http1(pipeline, true);
+        } else if (sslContext != null) {
+            // TLS下通过ALPN协商h2或http/1.1
+            pipeline.addLast(new AlpnHandler());
+        } else {
+            h2c(pipeline);
+        }
+    }
+
+    private void http1(ChannelPipeline pipeline, boolean codec) {
+        if (codec) {
+            pipeline.addLast(new HttpRequestDecoder())
+                    .addLast(new HttpResponseEncoder());
+        }
+        pipeline.addLast(new HttpServerKeepAliveHandler());
+        if (appConfig.isCompression()) {
+            // 不开启时不加入pipeline，避免每个响应都经过编码器
+            pipeline.addLast("compressor", new ContentCompressor(appConfig.getCompressionLevel(), appConfig.getCompressionMinSize()));
+        }
+        pipeline.addLast(new ChunkedWriteHandler())
+                .addLast(httpDispatcher);
+    }
+
+    /**
+     * plain connections start as HTTP/1.1 and switch to HTTP/2 on the connection preface
+     * (prior knowledge) or on "Upgrade: h2c"
+     */
+    private void h2c(ChannelPipeline pipeline) {
+        HttpServerCodec sourceCodec = new HttpServerCodec();
+        HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(sourceCodec,
+                protocol -> AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+                        ? new Http2ServerUpgradeCodec(http2FrameCodec(), new Http2MultiplexHandler(streamInitializer, streamInitializer))
+                        : null,
+                appConfig.getBodyMemoryThreshold());
+
+        pipeline.addLast(new CleartextHttp2ServerUpgradeHandler(sourceCodec, upgradeHandler, new PriorKnowledgeHandler()));
+        // 未升级的连接继续按HTTP/1.1处理，升级后请求由每个stream自己的pipeline处理
+        http1(pipeline, false);
+    }
+
+    private Http2FrameCodec http2FrameCodec() {
+        return Http2FrameCodecBuilder.forServer()
+                .initialSettings(Http2Settings.defaultSettings().maxConcurrentStreams(appConfig.getHttp2MaxConcurrentStreams()))
+                .build();
+    }
+
+    private SslContext sslContext() {
+        try {
+            SslContextBuilder builder = SslContextBuilder.forServer(new File(appConfig.getSslCert()), new File(appConfig.getSslKey()));
+            if (appConfig.isHttp2()) {
+                builder.ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+                        .applicationProtocolConfig(new ApplicationProtocolConfig(
+                                ApplicationProtocolConfig.Protocol.ALPN,
+                                ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                                ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                                ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1));
+            }
+            return builder.build();
+        } catch (SSLException | IllegalArgumentException e) {
+            throw new CicadaException("Load [cicada.ssl.cert] or [cicada.ssl.key] failed", e);
+        }
+    }
+
+    /**
+     * pipeline of one HTTP/2 stream, the dispatcher sees the same HttpObjects as on HTTP/1.1
+     */
+    @ChannelHandler.Sharable
+    private final class StreamInitializer extends ChannelInitializer<Http2StreamChannel> {
+        @Override
+        protected void initChannel(Http2StreamChannel ch) {
+            ChannelPipeline pipeline = ch.pipeline();
+            pipeline.addLast(streamCodec);
+            if (appConfig.isCompression()) {
+                pipeline.addLast(new ContentCompressor(appConfig.getCompressionLevel(), appConfig.getCompressionMinSize()));
+            }
+            pipeline.addLast(new ChunkedWriteHandler())
+                    .addLast(httpDispatcher);
+        }
+    }
+
+    /**
+     * takes the place of the HTTP/1.1 codec once the client sent the HTTP/2 preface
+     */
+    private final class PriorKnowledgeHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            // the multiplexer looks up the frame codec when it is added
+            ctx.pipeline().addAfter(ctx.name(), "http2", http2FrameCodec())
+                    .addAfter("http2", null, new Http2MultiplexHandler(streamInitializer));
+            ctx.pipeline().remove(this);
+        }
+    }
+
+    private final class AlpnHandler extends ApplicationProtocolNegotiationHandler {
+        private AlpnHandler() {
+            super(ApplicationProtocolNames.HTTP_1_1);
+        }
+
+        @Override
+        protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+            if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+                ctx.pipeline().addLast(http2FrameCodec(), new Http2MultiplexHandler(streamInitializer));
+                return;
+            }
+            http1(ctx.pipeline(), true);
+        }
     }
 }
@@ -1,6 +1,10 @@
 package top.crossoverjie.cicada.server.intercept;
 
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
 import top.crossoverjie.cicada.server.action.param.Param;
+import top.crossoverjie.cicada.server.annotation.Interceptor;
+import top.crossoverjie.cicada.server.annotation.RateLimit;
 import top.crossoverjie.cicada.server.config.AppConfig;
 import top.crossoverjie.cicada.server.context.CicadaContext;
 import top.crossoverjie.cicada.server.reflect.ClassScanner;
@@ -11,7 +15,8 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Function:
+ * Function: loads the interceptors once and compiles the chain of every route at startup,
+ * a request only walks the interceptors whose include/exclude patterns cover its route
  *
  * @author crossoverJie
  *         Date: 2018/10/21 18:42
@@ -19,11 +24,18 @@ import java.util.Map;
  */
 public class InterceptProcess {
 
+    private final static Logger LOGGER = LoggerBuilder.getLogger(InterceptProcess.class);
+
+    /**
+     * chain of routes no interceptor applies to
+     */
+    public static final CicadaInterceptor[] NONE = new CicadaInterceptor[0];
+
     private InterceptProcess(){}
 
     private volatile static InterceptProcess process ;
 
-    private static List<CicadaInterceptor> interceptors ;
+    private volatile List<Scoped> interceptors ;
 
     private AppConfig appConfig = AppConfig.getInstance();
 
@@ -43,30 +55,63 @@ public class InterceptProcess {
     }
 
 
-    public void loadInterceptors() throws Exception {
-
+    /**
+     * instantiate all @Interceptor sorted by order, called once at startup
+     * @throws Exception
+     */
+    public synchronized void loadInterceptors() throws Exception {
         if (interceptors != null){
             return;
-        }else {
-            interceptors = new ArrayList<>(10) ;
-            Map<Class<?>, Integer> cicadaInterceptor = ClassScanner.getCicadaInterceptor(appConfig.getRootPackageName());
+        }
+        List<CicadaInterceptor> sorted = new ArrayList<>(10) ;
+        Map<Class<?>, Integer> cicadaInterceptor = ClassScanner.getCicadaInterceptor(appConfig.getRootPackageName());
+        if (cicadaInterceptor != null) {
             for (Map.Entry<Class<?>, Integer> classEntry : cicadaInterceptor.entrySet()) {
                 Class<?> interceptorClass = classEntry.getKey();
                 CicadaInterceptor interceptor = (CicadaInterceptor) interceptorClass.newInstance();
                 interceptor.setOrder(classEntry.getValue());
-                interceptors.add(interceptor);
+                sorted.add(interceptor);
+            }
+        }
+        Collections.sort(sorted, new OrderComparator());
+
+        List<Scoped> loaded = new ArrayList<>(sorted.size());
+        for (CicadaInterceptor interceptor : sorted) {
+            Interceptor annotation = interceptor.getClass().getAnnotation(Interceptor.class);
+            loaded.add(new Scoped(interceptor, patterns(annotation.include()), patterns(annotation.exclude())));
+        }
+        interceptors = loaded;
+        LOGGER.info("Loaded {} interceptors", loaded.size());
+    }
+
+    /**
+     * @param path route path relative to [cicada.root.path]
+     * @param rateLimit limit of the route, may be null
+     * @return interceptors of the route in order, shared so it must not be modified
+     */
+    public CicadaInterceptor[] compile(String path, RateLimit rateLimit) {
+        List<CicadaInterceptor> chain = new ArrayList<>(interceptors.size() + 1);
+        if (rateLimit != null) {
+            // 限流放在最前面，被拒绝的请求不经过其他拦截器
+            chain.add(new RateLimitInterceptor(rateLimit, appConfig.getRateLimitMaxKeys()));
+        }
+        for (Scoped scoped : interceptors) {
+            if (scoped.applies(path)) {
+                chain.add(scoped.interceptor);
             }
-            Collections.sort(interceptors,new OrderComparator());
         }
+        return chain.isEmpty() ? NONE : chain.toArray(new CicadaInterceptor[0]);
     }
 
 
     /**
      * execute before
+     * @param interceptors chain of the route
      * @param param
+     * @return false when an interceptor stopped the request
      * @throws Exception
      */
-    public boolean processBefore(Param param) throws Exception {
+    public boolean processBefore(CicadaInterceptor[] interceptors, Param param) throws Exception {
         for (CicadaInterceptor interceptor : interceptors) {
             boolean access = interceptor.before(CicadaContext.getContext(), param);
             if (!access){
@@ -78,12 +123,55 @@ public class InterceptProcess {
 
     /**
      * execute after
+     * @param interceptors chain of the route
      * @param param
      * @throws Exception
      */
-    public void processAfter(Param param) throws Exception{
+    public void processAfter(CicadaInterceptor[] interceptors, Param param) throws Exception{
         for (CicadaInterceptor interceptor : interceptors) {
             interceptor.after(CicadaContext.getContext(),param) ;
         }
     }
+
+    private static PathPattern[] patterns(String[] values) {
+        PathPattern[] patterns = new PathPattern[values.length];
+        for (int i = 0; i < values.length; i++) {
+            patterns[i] = new PathPattern(values[i]);
+        }
+        return patterns;
+    }
+
+    /**
+     * interceptor with its compiled patterns
+     */
+    private static final class Scoped {
+        private final CicadaInterceptor interceptor;
+        private final PathPattern[] include;
+        private final PathPattern[] exclude;
+
+        private Scoped(CicadaInterceptor interceptor, PathPattern[] include, PathPattern[] exclude) {
+            this.interceptor = interceptor;
+            this.include = include;
+            this.exclude = exclude;
+        }
+
+        private boolean applies(String path) {
+            boolean included = include.length == 0;
+            for (PathPattern pattern : include) {
+                if (pattern.matches(path)) {
+                    included = true;
+                    break;
+                }
+            }
+            if (!included) {
+                return false;
+            }
+            for (PathPattern pattern : exclude) {
+                if (pattern.matches(path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
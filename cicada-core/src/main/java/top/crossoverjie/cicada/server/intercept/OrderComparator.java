@@ -12,13 +12,11 @@ import java.util.Comparator;
 public class OrderComparator implements Comparator<CicadaInterceptor> {
 
 
+    /**
+     * lower order runs first
+     */
     @Override
     public int compare(CicadaInterceptor o1, CicadaInterceptor o2) {
-
-        if (o1.getOrder() <= o2.getOrder()){
-            return 1 ;
-        }
-
-        return 0;
+        return Integer.compare(o1.getOrder(), o2.getOrder());
     }
 }
@@ -0,0 +1,70 @@
+package top.crossoverjie.cicada.server.intercept;
+
+/**
+ * Function: include/exclude pattern of @Interceptor, only matched against route paths at startup.
+ * A * segment matches one segment and a ** segment any number of segments.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class PathPattern {
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private static final String ANY_SEGMENT = "*";
+
+    private final String pattern;
+
+    private final String[] segments;
+
+    PathPattern(String pattern) {
+        this.pattern = pattern;
+        this.segments = split(pattern);
+    }
+
+    /**
+     * @param path route path relative to the root path, e.g. /routeAction/user/{id}
+     * @return true when the pattern covers the route
+     */
+    boolean matches(String path) {
+        return matches(0, split(path), 0);
+    }
+
+    private boolean matches(int p, String[] path, int s) {
+        if (p == segments.length) {
+            return s == path.length;
+        }
+        if (ANY_SEGMENTS.equals(segments[p])) {
+            // ** 可以匹配零个或多个路径段
+            for (int i = s; i <= path.length; i++) {
+                if (matches(p + 1, path, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (s == path.length) {
+            return false;
+        }
+        if (!ANY_SEGMENT.equals(segments[p]) && !segments[p].equals(path[s])) {
+            return false;
+        }
+        return matches(p + 1, path, s + 1);
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path.replaceAll("/+", "/");
+        if (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
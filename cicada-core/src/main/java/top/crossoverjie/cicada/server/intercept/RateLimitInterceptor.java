@@ -0,0 +1,68 @@
+package top.crossoverjie.cicada.server.intercept;
+
+import top.crossoverjie.cicada.server.action.param.Param;
+import top.crossoverjie.cicada.server.action.req.CicadaRequest;
+import top.crossoverjie.cicada.server.action.req.Cookie;
+import top.crossoverjie.cicada.server.annotation.RateLimit;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.enums.RateLimitKey;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function: first interceptor of a route declaring @RateLimit, one instance per route.
+ * A rejected request ends with 429 and a Retry-After header, the route is not invoked.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class RateLimitInterceptor extends CicadaInterceptor {
+
+    private final RateLimiter limiter;
+
+    private final RateLimitKey key;
+
+    private final String name;
+
+    public RateLimitInterceptor(RateLimit rateLimit, int maxKeys) {
+        int burst = rateLimit.burst() > 0 ? rateLimit.burst() : (int) Math.max(1, Math.ceil(rateLimit.permitsPerSecond()));
+        this.limiter = new RateLimiter(rateLimit.permitsPerSecond(), burst, maxKeys);
+        this.key = rateLimit.key();
+        this.name = rateLimit.name();
+        if ((key == RateLimitKey.HEADER || key == RateLimitKey.COOKIE) && name.isEmpty()) {
+            throw new CicadaException("@RateLimit(key = " + key + ") requires a name");
+        }
+    }
+
+    @Override
+    protected boolean before(CicadaContext context, Param param) {
+        // ROUTE and requests without the header or cookie share the unkeyed bucket
+        String client = key(CicadaContext.getRequest());
+        long wait = client == null ? limiter.tryAcquire() : limiter.tryAcquire(client);
+        if (wait == 0) {
+            return true;
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        CicadaContext.getResponse().getHeaders().put("Retry-After", String.valueOf(seconds));
+        throw new CicadaException(StatusEnum.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * @return key of the request, null for ROUTE or when the request has no such header or cookie
+     */
+    private String key(CicadaRequest request) {
+        switch (key) {
+            case IP:
+                return request.getClientAddress();
+            case HEADER:
+                return request.getHeader(name);
+            case COOKIE:
+                Cookie cookie = request.getCookie(name);
+                return cookie == null ? null : cookie.getValue();
+            default:
+                return null;
+        }
+    }
+}
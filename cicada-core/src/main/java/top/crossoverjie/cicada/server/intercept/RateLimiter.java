@@ -0,0 +1,169 @@
+package top.crossoverjie.cicada.server.intercept;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Function: token buckets without locks.
+ *
+ * Each bucket is a single AtomicLong holding the theoretical arrival time of the next request
+ * (GCRA), taking a token is one CAS. A bucket whose arrival time has passed is full again and
+ * equal to a new one, so it is dropped by a sweep: every {@link #IDLE_SWEEP_NANOS}, and on a
+ * miss of a full map as soon as the earliest bucket is full again.
+ * Once maxKeys clients are active, all new clients share one overflow bucket, i.e. together
+ * they get the budget of a single client. Memory stays bounded and new keys can not bypass the limit.
+ * Requests without a key use their own unkeyed bucket, they never drain the overflow bucket.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class RateLimiter {
+
+    private static final long IDLE_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * nanos between two tokens
+     */
+    private final long interval;
+
+    /**
+     * how far the arrival time may run ahead of now, (burst - 1) tokens
+     */
+    private final long tolerance;
+
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Bucket> buckets;
+
+    private final Bucket overflow = new Bucket();
+
+    private final Bucket unkeyed = new Bucket();
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private volatile long lastSweep = System.nanoTime();
+
+    /**
+     * earliest time a kept bucket is full again, a full map is swept from then on
+     */
+    private volatile long nextFull = lastSweep;
+
+    /**
+     * @param permitsPerSecond sustained rate of each bucket
+     * @param burst requests a full bucket lets through at once
+     * @param maxKeys buckets kept at most
+     */
+    public RateLimiter(double permitsPerSecond, int burst, int maxKeys) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("permitsPerSecond, burst and maxKeys must be positive");
+        }
+        this.interval = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.tolerance = interval * (burst - 1);
+        this.maxKeys = maxKeys;
+        this.buckets = new ConcurrentHashMap<>(Math.min(maxKeys, 1024));
+    }
+
+    /**
+     * take a token of the unkeyed bucket, e.g. for a limit of the whole route
+     * @return 0 when allowed, otherwise nanos until a token is available
+     */
+    public long tryAcquire() {
+        return take(unkeyed, System.nanoTime());
+    }
+
+    /**
+     * take a token of the key
+     * @param key client key, null for the unkeyed bucket
+     * @return 0 when allowed, otherwise nanos until a token is available
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        return take(key == null ? unkeyed : bucket(key, now), now);
+    }
+
+    /**
+     * @return buckets currently kept
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private long take(Bucket bucket, long now) {
+        for (; ; ) {
+            long tat = bucket.get();
+            long start = tat - now > 0 ? tat : now;
+            long ahead = start - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (bucket.compareAndSet(tat, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private Bucket bucket(String key, long now) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        boolean full = buckets.size() >= maxKeys;
+        if (full ? now - nextFull >= 0 : now - lastSweep >= IDLE_SWEEP_NANOS) {
+            sweep(now);
+            full = buckets.size() >= maxKeys;
+        }
+        if (full) {
+            return overflow;
+        }
+        Bucket created = new Bucket(now);
+        bucket = buckets.putIfAbsent(key, created);
+        return bucket == null ? created : bucket;
+    }
+
+    /**
+     * drop full buckets, a request racing with the removal loses at most one token of accounting
+     */
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long[] earliest = {0L};
+            boolean[] kept = {false};
+            buckets.values().removeIf(bucket -> {
+                long tat = bucket.get();
+                if (tat - now <= 0) {
+                    return true;
+                }
+                if (!kept[0] || tat - earliest[0] < 0) {
+                    earliest[0] = tat;
+                    kept[0] = true;
+                }
+                return false;
+            });
+            nextFull = kept[0] ? earliest[0] : now;
+        } finally {
+            lastSweep = now;
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * theoretical arrival time of the next request
+     */
+    private static final class Bucket extends AtomicLong {
+        private Bucket() {
+            super(System.nanoTime());
+        }
+
+        private Bucket(long now) {
+            super(now);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package top.crossoverjie.cicada.server.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Function: registry of runtime gauges, e.g. worker pool queue depth
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class CicadaMetrics {
+
+    private volatile static CicadaMetrics metrics;
+
+    private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>(32);
+
+    private CicadaMetrics() {
+    }
+
+    public static CicadaMetrics getInstance() {
+        if (metrics == null) {
+            synchronized (CicadaMetrics.class) {
+                if (metrics == null) {
+                    metrics = new CicadaMetrics();
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * register a gauge, the supplier is only called when reading
+     * @param name metric name, e.g. cicada.worker.queue
+     * @param gauge value supplier
+     */
+    public void register(String name, Supplier<Number> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * remove a gauge
+     * @param name metric name
+     */
+    public void remove(String name) {
+        gauges.remove(name);
+    }
+
+    /**
+     * @param name metric name
+     * @return current value or null
+     */
+    public Number get(String name) {
+        Supplier<Number> gauge = gauges.get(name);
+        return gauge == null ? null : gauge.get();
+    }
+
+    /**
+     * @return current value of all gauges, sorted by name
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Supplier<Number>> entry : gauges.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().get());
+        }
+        return snapshot;
+    }
+}
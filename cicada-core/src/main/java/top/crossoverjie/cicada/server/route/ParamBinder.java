@@ -0,0 +1,289 @@
+package top.crossoverjie.cicada.server.route;
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import top.crossoverjie.cicada.server.action.req.CicadaRequest;
+import top.crossoverjie.cicada.server.action.req.RequestBody;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+import top.crossoverjie.cicada.server.util.BodyUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Function: binding plan of a route method's arguments, built once at startup.
+ *
+ * Every POJO argument keeps its constructor handle, its JSON deserializer and a setter handle
+ * plus a typed converter per field, so a request only does map lookups and handle calls.
+ * An application/json body is deserialized first, query parameters and path variables are
+ * applied on top of it.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ParamBinder {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = new HashMap<>(32);
+
+    static {
+        CONVERTERS.put(String.class, value -> value);
+        CONVERTERS.put(Integer.class, Integer::valueOf);
+        CONVERTERS.put(int.class, value -> value.isEmpty() ? 0 : Integer.valueOf(value));
+        CONVERTERS.put(Long.class, Long::valueOf);
+        CONVERTERS.put(long.class, value -> value.isEmpty() ? 0L : Long.valueOf(value));
+        CONVERTERS.put(Double.class, Double::valueOf);
+        CONVERTERS.put(double.class, value -> value.isEmpty() ? 0D : Double.valueOf(value));
+        CONVERTERS.put(Float.class, Float::valueOf);
+        CONVERTERS.put(float.class, value -> value.isEmpty() ? 0F : Float.valueOf(value));
+        CONVERTERS.put(Short.class, Short::valueOf);
+        CONVERTERS.put(short.class, value -> value.isEmpty() ? (short) 0 : Short.valueOf(value));
+        CONVERTERS.put(Byte.class, Byte::valueOf);
+        CONVERTERS.put(byte.class, value -> value.isEmpty() ? (byte) 0 : Byte.valueOf(value));
+        CONVERTERS.put(Boolean.class, Boolean::valueOf);
+        CONVERTERS.put(boolean.class, Boolean::valueOf);
+        CONVERTERS.put(BigDecimal.class, BigDecimal::new);
+    }
+
+    /**
+     * one resolver per method argument, null when the method has none
+     */
+    private final Resolver[] resolvers;
+
+    private ParamBinder(Resolver[] resolvers) {
+        this.resolvers = resolvers;
+    }
+
+    /**
+     * build the binding plan of a route
+     * @param route route with its method and path variables
+     * @return binding plan
+     */
+    public static ParamBinder compile(Route route) {
+        Method method = route.getMethod();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            return new ParamBinder(null);
+        }
+
+        // keep failing at request time like before, a bad route must not stop the server
+        if (parameterTypes.length > 2) {
+            return new ParamBinder(new Resolver[]{new IllegalResolver()});
+        }
+
+        Resolver[] resolvers = new Resolver[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == CicadaContext.class) {
+                resolvers[i] = new ContextResolver();
+            } else {
+                resolvers[i] = PojoResolver.compile(parameterTypes[i], route.getVariableNames());
+            }
+        }
+        return new ParamBinder(resolvers);
+    }
+
+    /**
+     * bind request parameters to the route arguments
+     * @param parameters query parameters
+     * @return arguments, null when the method has none
+     * @throws Exception create or set failed
+     */
+    public Object[] bind(Map<String, List<String>> parameters) throws Exception {
+        if (resolvers == null) {
+            return null;
+        }
+
+        Object[] instances = new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            instances[i] = resolvers[i].resolve(parameters);
+        }
+        return instances;
+    }
+
+    private interface Resolver {
+        Object resolve(Map<String, List<String>> parameters) throws Exception;
+    }
+
+    private static final class IllegalResolver implements Resolver {
+        @Override
+        public Object resolve(Map<String, List<String>> parameters) {
+            throw new CicadaException(StatusEnum.ILLEGAL_PARAMETER);
+        }
+    }
+
+    private static final class ContextResolver implements Resolver {
+        @Override
+        public Object resolve(Map<String, List<String>> parameters) {
+            return CicadaContext.getContext();
+        }
+    }
+
+    private static final class FieldBinding {
+        private final String name;
+        private final MethodHandle setter;
+        private final Function<String, Object> converter;
+
+        private FieldBinding(String name, MethodHandle setter, Function<String, Object> converter) {
+            this.name = name;
+            this.setter = setter;
+            this.converter = converter;
+        }
+
+        private void set(Object instance, String value) throws Throwable {
+            if (value == null) {
+                return;
+            }
+            Object converted;
+            try {
+                converted = converter.apply(value);
+            } catch (IllegalArgumentException e) {
+                // e.g. ?age=abc, a client error like a malformed body
+                throw new CicadaException(StatusEnum.BAD_REQUEST, "Illegal value of parameter " + name + ": " + value);
+            }
+            setter.invokeExact(instance, converted);
+        }
+    }
+
+    private static final class PojoResolver implements Resolver {
+
+        private final Class<?> type;
+
+        /**
+         * null when the type has no default constructor
+         */
+        private final MethodHandle constructor;
+
+        /**
+         * null when fastjson can not handle the type
+         */
+        private final ObjectDeserializer deserializer;
+
+        private final Map<String, FieldBinding> fields;
+
+        private final String[] variableNames;
+
+        /**
+         * aligned with variableNames, null when no field has the name
+         */
+        private final FieldBinding[] variables;
+
+        private PojoResolver(Class<?> type, MethodHandle constructor, ObjectDeserializer deserializer,
+                             Map<String, FieldBinding> fields, String[] variableNames, FieldBinding[] variables) {
+            this.type = type;
+            this.constructor = constructor;
+            this.deserializer = deserializer;
+            this.fields = fields;
+            this.variableNames = variableNames;
+            this.variables = variables;
+        }
+
+        private static PojoResolver compile(Class<?> type, String[] variableNames) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle constructor = null;
+            try {
+                Constructor<?> declared = type.getDeclaredConstructor();
+                declared.setAccessible(true);
+                constructor = lookup.unreflectConstructor(declared).asType(CONSTRUCTOR_TYPE);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // reported when the route is called
+            }
+
+            ObjectDeserializer deserializer = null;
+            try {
+                deserializer = ParserConfig.getGlobalInstance().getDeserializer(type);
+            } catch (RuntimeException e) {
+                // bound from query parameters only
+            }
+
+            Map<String, FieldBinding> fields = new HashMap<>(16);
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    Function<String, Object> converter = CONVERTERS.get(field.getType());
+                    if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || converter == null
+                            || fields.containsKey(field.getName())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                        fields.put(field.getName(), new FieldBinding(field.getName(), setter, converter));
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        // not accessible, e.g. a JDK type, treated like an unknown parameter
+                    }
+                }
+            }
+
+            FieldBinding[] variables = new FieldBinding[variableNames.length];
+            for (int i = 0; i < variableNames.length; i++) {
+                variables[i] = fields.get(variableNames[i]);
+            }
+            return new PojoResolver(type, constructor, deserializer, fields, variableNames, variables);
+        }
+
+        @Override
+        public Object resolve(Map<String, List<String>> parameters) throws Exception {
+            CicadaRequest request = CicadaContext.getRequest();
+            Object instance = null;
+            if (deserializer != null) {
+                RequestBody body = request.getBody();
+                if (body.size() > 0 && BodyUtil.isJson(request.getHeader(HttpHeaderNames.CONTENT_TYPE.toString()))) {
+                    try {
+                        instance = BodyUtil.parseJson(body.inputStream(), type, deserializer);
+                    } catch (JSONException e) {
+                        // the client sent it, answer 400 without a stack trace
+                        throw new CicadaException(StatusEnum.BAD_REQUEST, "Malformed JSON body: " + e.getMessage());
+                    }
+                }
+            }
+
+            if (instance == null && constructor == null) {
+                throw new CicadaException("No default constructor of " + type.getName());
+            }
+
+            try {
+                if (instance == null) {
+                    instance = constructor.invokeExact();
+                }
+
+                for (Map.Entry<String, List<String>> param : parameters.entrySet()) {
+                    // unknown parameters are ignored
+                    FieldBinding binding = fields.get(param.getKey());
+                    if (binding != null) {
+                        binding.set(instance, param.getValue().get(0));
+                    }
+                }
+
+                //inject path variables, e.g. {id}
+                if (variables.length > 0) {
+                    for (int i = 0; i < variables.length; i++) {
+                        if (variables[i] != null) {
+                            variables[i].set(instance, request.getPathVariable(variableNames[i]));
+                        }
+                    }
+                }
+                return instance;
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new CicadaException(t);
+            }
+        }
+    }
+}
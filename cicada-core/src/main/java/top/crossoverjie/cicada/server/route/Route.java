@@ -0,0 +1,152 @@
+package top.crossoverjie.cicada.server.route;
+
+import top.crossoverjie.cicada.server.annotation.Cacheable;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.Priority;
+import top.crossoverjie.cicada.server.intercept.CicadaInterceptor;
+import top.crossoverjie.cicada.server.intercept.InterceptProcess;
+
+import java.lang.reflect.Method;
+
+/**
+ * Function: a compiled @CicadaRoute, built once at startup
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class Route {
+
+    /**
+     * full path pattern, e.g. /cicada-example/routeAction/user/{id}
+     */
+    private final String path;
+
+    private final Method method;
+
+    private final ExecutionMode mode;
+
+    /**
+     * names of {var} and * segments in declaration order
+     */
+    private final String[] variableNames;
+
+    /**
+     * compiled invoker bound to the action bean
+     */
+    private RouteInvoker invoker;
+
+    /**
+     * binding plan of the method arguments
+     */
+    private ParamBinder binder;
+
+    /**
+     * interceptors whose patterns cover the route, in order
+     */
+    private CicadaInterceptor[] interceptors = InterceptProcess.NONE;
+
+    /**
+     * bulkhead name, null when the route runs in the executor of its mode
+     */
+    private String bulkhead;
+
+    private Priority priority = Priority.NORMAL;
+
+    /**
+     * milliseconds, 0 when the route has no deadline
+     */
+    private long timeout;
+
+    /**
+     * response cache settings, null when the route is not cached
+     */
+    private Cacheable cacheable;
+
+    public Route(String path, Method method, ExecutionMode mode, String[] variableNames) {
+        this.path = path;
+        this.method = method;
+        this.mode = mode;
+        this.variableNames = variableNames;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public String[] getVariableNames() {
+        return variableNames;
+    }
+
+    public RouteInvoker getInvoker() {
+        return invoker;
+    }
+
+    public void setInvoker(RouteInvoker invoker) {
+        this.invoker = invoker;
+    }
+
+    public ParamBinder getBinder() {
+        return binder;
+    }
+
+    public void setBinder(ParamBinder binder) {
+        this.binder = binder;
+    }
+
+    public CicadaInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+
+    public void setInterceptors(CicadaInterceptor[] interceptors) {
+        this.interceptors = interceptors;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(String bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public Cacheable getCacheable() {
+        return cacheable;
+    }
+
+    public void setCacheable(Cacheable cacheable) {
+        this.cacheable = cacheable;
+    }
+
+    public boolean hasVariables() {
+        return variableNames.length > 0;
+    }
+
+    @Override
+    public String toString() {
+        return path + " -> " + method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,19 @@
+package top.crossoverjie.cicada.server.route;
+
+/**
+ * Function: invoke a route method bound to its action bean
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+@FunctionalInterface
+public interface RouteInvoker {
+
+    /**
+     * invoke the route method
+     * @param args arguments, null when the method has no parameter
+     * @return return value, null for void methods
+     * @throws Exception exception thrown by the action, never wrapped
+     */
+    Object invoke(Object[] args) throws Exception;
+}
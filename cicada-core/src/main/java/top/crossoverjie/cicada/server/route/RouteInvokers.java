@@ -0,0 +1,155 @@
+package top.crossoverjie.cicada.server.route;
+
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Function: compile route methods into direct invokers at startup.
+ *
+ * Public methods of public actions are linked through LambdaMetafactory into a
+ * java.util.function implementation which captures the bean, so the JIT can inline
+ * the action like a normal method reference. Other methods fall back to a bound MethodHandle.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class RouteInvokers {
+
+    private final static Logger LOGGER = LoggerBuilder.getLogger(RouteInvokers.class);
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private RouteInvokers() {
+    }
+
+    /**
+     * @param method route method
+     * @param bean action instance the method is bound to
+     * @return invoker
+     */
+    public static RouteInvoker compile(Method method, Object bean) {
+        try {
+            if (lambdaAccessible(method)) {
+                return lambda(method, bean);
+            }
+        } catch (Throwable e) {
+            LOGGER.warn("Can not link {} with LambdaMetafactory, use MethodHandle: {}", method, e.toString());
+        }
+
+        try {
+            return methodHandle(method, bean);
+        } catch (IllegalAccessException e) {
+            throw new CicadaException("Can not access route method " + method, e);
+        }
+    }
+
+    private static boolean lambdaAccessible(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 2
+                || !Modifier.isPublic(method.getModifiers())
+                || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return false;
+        }
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type.isPrimitive() || !Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RouteInvoker lambda(Method method, Object bean) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle target = lookup.unreflect(method);
+        Class<?>[] types = method.getParameterTypes();
+        boolean isVoid = method.getReturnType() == void.class;
+        Class<?> returnType = isVoid ? void.class : wrap(method.getReturnType());
+        Class<?> beanType = method.getDeclaringClass();
+
+        switch (types.length) {
+            case 0:
+                if (isVoid) {
+                    Runnable runnable = (Runnable) link(lookup, target, "run", Runnable.class, beanType,
+                            MethodType.methodType(void.class), MethodType.methodType(void.class), bean);
+                    return args -> {
+                        runnable.run();
+                        return null;
+                    };
+                }
+                Supplier<Object> supplier = (Supplier<Object>) link(lookup, target, "get", Supplier.class, beanType,
+                        MethodType.methodType(Object.class), MethodType.methodType(returnType), bean);
+                return args -> supplier.get();
+            case 1:
+                if (isVoid) {
+                    Consumer<Object> consumer = (Consumer<Object>) link(lookup, target, "accept", Consumer.class, beanType,
+                            MethodType.methodType(void.class, Object.class), MethodType.methodType(void.class, types[0]), bean);
+                    return args -> {
+                        consumer.accept(args[0]);
+                        return null;
+                    };
+                }
+                Function<Object, Object> function = (Function<Object, Object>) link(lookup, target, "apply", Function.class, beanType,
+                        MethodType.methodType(Object.class, Object.class), MethodType.methodType(returnType, types[0]), bean);
+                return args -> function.apply(args[0]);
+            default:
+                if (isVoid) {
+                    BiConsumer<Object, Object> biConsumer = (BiConsumer<Object, Object>) link(lookup, target, "accept", BiConsumer.class, beanType,
+                            MethodType.methodType(void.class, Object.class, Object.class), MethodType.methodType(void.class, types[0], types[1]), bean);
+                    return args -> {
+                        biConsumer.accept(args[0], args[1]);
+                        return null;
+                    };
+                }
+                BiFunction<Object, Object, Object> biFunction = (BiFunction<Object, Object, Object>) link(lookup, target, "apply", BiFunction.class, beanType,
+                        MethodType.methodType(Object.class, Object.class, Object.class), MethodType.methodType(returnType, types[0], types[1]), bean);
+                return args -> biFunction.apply(args[0], args[1]);
+        }
+    }
+
+    private static Object link(MethodHandles.Lookup lookup, MethodHandle target, String name, Class<?> functionalInterface,
+                               Class<?> beanType, MethodType samType, MethodType instantiatedType, Object bean) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, name,
+                MethodType.methodType(functionalInterface, beanType), samType, target, instantiatedType);
+        return site.getTarget().invoke(bean);
+    }
+
+    private static RouteInvoker methodHandle(Method method, Object bean) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(bean);
+        }
+        MethodHandle invoker = handle.asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return args -> {
+            try {
+                return (Object) invoker.invokeExact(args == null ? EMPTY : args);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new CicadaException(t);
+            }
+        };
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,248 @@
+package top.crossoverjie.cicada.server.route;
+
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Function: segment trie of routes.
+ *
+ * Supports static segments, path variables {name} and a trailing wildcard *.
+ * Static segments win over variables, variables win over the wildcard.
+ * Matching compares regions of the request path in place, no substring is created.
+ * Routes without variables are also indexed by their normalized path, so most requests
+ * are resolved by a single hash lookup before walking the tree.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class RouteTree {
+
+    private static final String WILDCARD = "*";
+
+    private final Node root = new Node(null);
+
+    /**
+     * variable free routes by normalized path, a hit is what the tree would return
+     */
+    private final Map<String, Route> exact = new HashMap<>(64);
+
+    private int maxVariables = 0;
+
+    private int size = 0;
+
+    /**
+     * add a route, must not be called after the tree is published to request threads
+     *
+     * @param route compiled route
+     */
+    public void add(Route route) {
+        Node node = root;
+        String path = route.getPath();
+        StringBuilder normalized = new StringBuilder(path.length());
+        int pos = 0;
+        while (pos < path.length()) {
+            int start = pos + 1;
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            String segment = path.substring(start, end);
+            if (segment.isEmpty()) {
+                pos = end;
+                continue;
+            }
+
+            if (WILDCARD.equals(segment)) {
+                if (end != path.length()) {
+                    throw new CicadaException("Wildcard must be the last segment of route " + path);
+                }
+                if (node.wildcard == null) {
+                    node.wildcard = new Node(WILDCARD);
+                }
+                node = node.wildcard;
+            } else if (isVariable(segment)) {
+                if (node.variable == null) {
+                    node.variable = new Node(segment);
+                }
+                node = node.variable;
+            } else {
+                node = node.addStatic(segment);
+            }
+            normalized.append('/').append(segment);
+            pos = end;
+        }
+
+        if (node.route != null) {
+            throw new CicadaException("Duplicate route [" + path + "] declared by " + node.route + " and " + route);
+        }
+        node.route = route;
+        if (!route.hasVariables()) {
+            exact.put(normalized.length() == 0 ? "/" : normalized.toString(), route);
+        }
+        maxVariables = Math.max(maxVariables, route.getVariableNames().length);
+        size++;
+    }
+
+    /**
+     * match request path
+     *
+     * @param path     decoded request path without query string
+     * @param captures [start, end) offsets of every variable, length at least {@link #captureSize()}
+     * @return route or null
+     */
+    public Route match(String path, int[] captures) {
+        Route route = exact.get(path);
+        if (route != null) {
+            return route;
+        }
+        return match(root, path, 0, captures, 0);
+    }
+
+    private Route match(Node node, String path, int pos, int[] captures, int variables) {
+        int length = path.length();
+        if (pos >= length) {
+            return node.route;
+        }
+
+        int start = pos + 1;
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = length;
+        }
+        if (start == end) {
+            // "//" or trailing "/"
+            return end == length ? node.route : match(node, path, end, captures, variables);
+        }
+
+        Node child = node.findStatic(path, start, end);
+        if (child != null) {
+            Route route = match(child, path, end, captures, variables);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        if (node.variable != null) {
+            captures[variables << 1] = start;
+            captures[(variables << 1) + 1] = end;
+            Route route = match(node.variable, path, end, captures, variables + 1);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        if (node.wildcard != null) {
+            captures[variables << 1] = start;
+            captures[(variables << 1) + 1] = length;
+            return node.wildcard.route;
+        }
+        return null;
+    }
+
+    /**
+     * @return length of the captures array passed to {@link #match(String, int[])}
+     */
+    public int captureSize() {
+        return Math.max(1, maxVariables) << 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * parse variable names of a route path
+     * @param path e.g. /user/{id}/file/*
+     * @return [id, *]
+     */
+    public static String[] variableNames(String path) {
+        List<String> names = new ArrayList<>(2);
+        for (String segment : path.split("/")) {
+            if (WILDCARD.equals(segment)) {
+                names.add(WILDCARD);
+            } else if (isVariable(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static final class Node {
+
+        private static final Node[] EMPTY = new Node[0];
+
+        private final String segment;
+
+        /**
+         * sorted by segment, binary searched against the request path
+         */
+        private Node[] statics = EMPTY;
+
+        private Node variable;
+
+        private Node wildcard;
+
+        private Route route;
+
+        private Node(String segment) {
+            this.segment = segment;
+        }
+
+        private Node addStatic(String segment) {
+            int index = search(segment, 0, segment.length());
+            if (index >= 0) {
+                return statics[index];
+            }
+            index = -(index + 1);
+            Node node = new Node(segment);
+            Node[] nodes = Arrays.copyOf(statics, statics.length + 1);
+            System.arraycopy(nodes, index, nodes, index + 1, statics.length - index);
+            nodes[index] = node;
+            statics = nodes;
+            return node;
+        }
+
+        private Node findStatic(String path, int start, int end) {
+            int index = search(path, start, end);
+            return index >= 0 ? statics[index] : null;
+        }
+
+        private int search(String path, int start, int end) {
+            int low = 0;
+            int high = statics.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(statics[mid].segment, path, start, end);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private static int compare(String segment, String path, int start, int end) {
+            int length = end - start;
+            int min = Math.min(segment.length(), length);
+            for (int i = 0; i < min; i++) {
+                int diff = segment.charAt(i) - path.charAt(start + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return segment.length() - length;
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package top.crossoverjie.cicada.server.route;
 
-import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.annotation.Cacheable;
 import top.crossoverjie.cicada.server.annotation.CicadaAction;
 import top.crossoverjie.cicada.server.annotation.CicadaRoute;
+import top.crossoverjie.cicada.server.annotation.RateLimit;
+import top.crossoverjie.cicada.server.bean.CicadaBeanManager;
 import top.crossoverjie.cicada.server.config.AppConfig;
 import top.crossoverjie.cicada.server.context.CicadaContext;
 import top.crossoverjie.cicada.server.enums.StatusEnum;
 import top.crossoverjie.cicada.server.exception.CicadaException;
+import top.crossoverjie.cicada.server.intercept.InterceptProcess;
 import top.crossoverjie.cicada.server.reflect.ClassScanner;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -23,12 +27,28 @@ import java.util.Set;
  */
 public class RouterScanner {
 
-    private static Map<String, Method> routes = null;
+    private final static Logger LOGGER = LoggerBuilder.getLogger(RouterScanner.class);
+
+    private static volatile RouteTree routes = null;
+
+    /**
+     * reusable variable offsets of the current thread
+     */
+    private static final FastThreadLocal<int[]> CAPTURES = new FastThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[routes.captureSize()];
+        }
+    };
 
     private volatile static RouterScanner routerScanner;
 
     private AppConfig appConfig = AppConfig.getInstance();
 
+    private CicadaBeanManager cicadaBeanManager = CicadaBeanManager.getInstance();
+
+    private InterceptProcess interceptProcess = InterceptProcess.getInstance();
+
     /**
      * get single Instance
      *
@@ -49,47 +69,62 @@ public class RouterScanner {
     }
 
     /**
-     * get route method
+     * match the route once on the I/O thread, its executor, deadline and path variables all come from this match
      *
-     * @param queryStringDecoder
-     * @return
-     * @throws Exception
+     * @param path decoded request path
+     * @return route, null when no route matches
      */
-    public Method routeMethod(QueryStringDecoder queryStringDecoder) throws Exception {
-        if (routes == null) {
-            routes = new HashMap<>(16);
-            loadRouteMethods(appConfig.getRootPackageName());
-        }
-
-        //default response
-        boolean defaultResponse = defaultResponse(queryStringDecoder.path());
+    public Route lookup(String path) {
+        return routes.match(path, CAPTURES.get());
+    }
 
-        if (defaultResponse) {
+    /**
+     * @param route route returned by the last {@link #lookup(String)} of the current thread
+     * @param path path passed to that lookup
+     * @return values of the path variables, null when the route has none
+     */
+    public String[] pathVariables(Route route, String path) {
+        if (route == null || !route.hasVariables()) {
             return null;
         }
-
-        Method method = routes.get(queryStringDecoder.path());
-
-        if (method == null) {
-            throw new CicadaException(StatusEnum.NOT_FOUND);
+        int[] captures = CAPTURES.get();
+        String[] values = new String[route.getVariableNames().length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = path.substring(captures[i << 1], captures[(i << 1) + 1]);
         }
-
-        return method;
-
-
+        return values;
     }
 
-    private boolean defaultResponse(String path) {
-        if (appConfig.getRootPath().equals(path)) {
-            CicadaContext.getContext().html("<center> Hello Cicada <br/><br/>" +
-                    "Power by <a href='https://github.com/TogetherOS/cicada'>@Cicada</a> </center>");
-            return true;
+    /**
+     * answer a path no route matches
+     *
+     * @param path decoded request path
+     * @throws CicadaException 404 unless the root path is requested
+     */
+    public void unmatched(String path) {
+        //default response
+        if (!appConfig.getRootPath().equals(path)) {
+            throw new CicadaException(StatusEnum.NOT_FOUND);
         }
-        return false;
+        CicadaContext.getContext().html("<center> Hello Cicada <br/><br/>" +
+                "Power by <a href='https://github.com/TogetherOS/cicada'>@Cicada</a> </center>");
     }
 
 
-    private void loadRouteMethods(String packageName) throws Exception {
+    /**
+     * compile all @CicadaRoute into the route tree, called once at startup
+     *
+     * @throws Exception
+     */
+    public void loadRoutes() throws Exception {
+        interceptProcess.loadInterceptors();
+        RouteTree tree = new RouteTree();
+        loadRouteMethods(appConfig.getRootPackageName(), tree);
+        routes = tree;
+        LOGGER.info("Loaded {} routes", tree.size());
+    }
+
+    private void loadRouteMethods(String packageName, RouteTree tree) throws Exception {
         Set<Class<?>> classes = ClassScanner.getClasses(packageName);
 
         for (Class<?> aClass : classes) {
@@ -102,7 +137,25 @@ public class RouterScanner {
                 }
 
                 CicadaAction cicadaAction = aClass.getAnnotation(CicadaAction.class);
-                routes.put(appConfig.getRootPath() + "/" + cicadaAction.value() + "/" + annotation.value(), method);
+                String actionPath = "/" + cicadaAction.value() + "/" + annotation.value();
+                String path = appConfig.getRootPath() + actionPath;
+                Route route = new Route(path, method, annotation.mode(), RouteTree.variableNames(path));
+
+                Object bean = cicadaBeanManager.getBean(aClass.getName());
+                if (bean == null) {
+                    throw new CicadaException("No bean of action " + aClass.getName());
+                }
+                route.setInvoker(RouteInvokers.compile(method, bean));
+                route.setBinder(ParamBinder.compile(route));
+                RateLimit rateLimit = method.getAnnotation(RateLimit.class);
+                route.setInterceptors(interceptProcess.compile(actionPath,
+                        rateLimit != null ? rateLimit : aClass.getAnnotation(RateLimit.class)));
+                String bulkhead = annotation.bulkhead().isEmpty() ? cicadaAction.bulkhead() : annotation.bulkhead();
+                route.setBulkhead(bulkhead.isEmpty() ? null : bulkhead);
+                route.setPriority(annotation.priority());
+                route.setTimeout(annotation.timeout() == 0 ? appConfig.getRequestTimeout() : Math.max(0, annotation.timeout()));
+                route.setCacheable(method.getAnnotation(Cacheable.class));
+                tree.add(route);
             }
         }
     }
@@ -0,0 +1,202 @@
+package top.crossoverjie.cicada.server.thread;
+
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Function: adaptive limit of the routes running at the same time.
+ *
+ * The limit follows the latency gradient: the average latency of a short window is compared
+ * with a slowly moving long term average, when routes get slower than usual (e.g. the database
+ * is saturated) the limit shrinks, otherwise it grows by about sqrt(limit) per window.
+ * Requests over the limit are shed at once instead of queueing behind the slow ones.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ConcurrencyLimiter {
+
+    /**
+     * latency may grow by this factor before the limit shrinks
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * weight of a new estimate, smooths the limit over a few windows
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * windows the long term latency averages over
+     */
+    private static final int LONG_WINDOWS = 100;
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final int WINDOW_MIN_SAMPLES = 10;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private final LongAdder windowNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile int limit;
+
+    /**
+     * highest in flight count of the window, racy on purpose
+     */
+    private volatile int peak;
+
+    private volatile long windowStart = System.nanoTime();
+
+    private volatile long shortRtt;
+
+    private volatile double shedPerSecond;
+
+    /**
+     * only written by the thread closing a window
+     */
+    private double estimate;
+    private double longRtt;
+    private long lastShed;
+
+    /**
+     * @param name metric prefix, e.g. cicada.limit
+     * @param initialLimit limit before any latency was observed
+     * @param minLimit the limit never shrinks below
+     * @param maxLimit the limit never grows over
+     */
+    public ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("require 1 <= minLimit <= maxLimit");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimate;
+        registerMetrics();
+    }
+
+    /**
+     * @return true when the route may run, the caller must {@link #release(long)} it afterwards
+     */
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current >= peak) {
+                    peak = current + 1;
+                }
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param start System.nanoTime() taken right after {@link #tryAcquire()}
+     */
+    public void release(long start) {
+        release(start, System.nanoTime());
+    }
+
+    void release(long start, long now) {
+        inFlight.decrementAndGet();
+        windowNanos.add(now - start);
+        windowSamples.increment();
+        if (now - windowStart >= WINDOW_NANOS && windowSamples.sum() >= WINDOW_MIN_SAMPLES
+                && updating.compareAndSet(false, true)) {
+            try {
+                update(now);
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    private void update(long now) {
+        long samples = windowSamples.sumThenReset();
+        long nanos = windowNanos.sumThenReset();
+        if (samples == 0) {
+            return;
+        }
+        long elapsed = now - windowStart;
+        windowStart = now;
+        int windowPeak = peak;
+        peak = inFlight.get();
+
+        long shedTotal = shed.sum();
+        shedPerSecond = (shedTotal - lastShed) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        lastShed = shedTotal;
+
+        double rtt = Math.max(1, nanos / samples);
+        shortRtt = (long) rtt;
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt += (rtt - longRtt) / LONG_WINDOWS;
+            if (longRtt > rtt * 2) {
+                // 负载下降后长期延迟较快地跟上，避免限制长时间放不开
+                longRtt *= 0.95;
+            }
+        }
+
+        if (windowPeak < estimate / 2) {
+            // 并发远未达到限制，延迟不能说明限制是否合适
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimate;
+    }
+
+    private void registerMetrics() {
+        CicadaMetrics metrics = CicadaMetrics.getInstance();
+        metrics.register(name + ".limit", this::getLimit);
+        metrics.register(name + ".inFlight", this::getInFlight);
+        metrics.register(name + ".shed", this::getShedCount);
+        metrics.register(name + ".shedPerSecond", this::getShedPerSecond);
+        metrics.register(name + ".accepted", accepted::sum);
+        metrics.register(name + ".rttMicros", () -> TimeUnit.NANOSECONDS.toMicros(shortRtt));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * @return requests shed per second during the last window
+     */
+    public double getShedPerSecond() {
+        return shedPerSecond;
+    }
+}
@@ -0,0 +1,296 @@
+package top.crossoverjie.cicada.server.thread;
+
+import top.crossoverjie.cicada.server.context.CicadaContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Function: future whose dependent stages run with a captured {@link CicadaContext},
+ * whichever thread completes the future or calls get()/join(). Dependent stages are
+ * context futures again, so the context follows the whole chain.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class ContextFuture<T> extends CompletableFuture<T> {
+
+    private final CicadaContext context;
+
+    ContextFuture(CicadaContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param future dependent stage built by CompletableFuture
+     * @return the same stage carrying the context
+     */
+    private <U> CompletableFuture<U> adopt(CompletableFuture<U> future) {
+        if (future instanceof ContextFuture) {
+            return future;
+        }
+        ContextFuture<U> adopted = new ContextFuture<>(context);
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                adopted.completeExceptionally(error);
+            } else {
+                adopted.complete(value);
+            }
+        });
+        return adopted;
+    }
+
+    private <A, R> Function<A, R> bind(Function<A, R> fn) {
+        return a -> {
+            CicadaContext previous = ContextPropagation.attach(context);
+            try {
+                return fn.apply(a);
+            } finally {
+                ContextPropagation.restore(previous);
+            }
+        };
+    }
+
+    private <A, B, R> BiFunction<A, B, R> bind(BiFunction<A, B, R> fn) {
+        return (a, b) -> {
+            CicadaContext previous = ContextPropagation.attach(context);
+            try {
+                return fn.apply(a, b);
+            } finally {
+                ContextPropagation.restore(previous);
+            }
+        };
+    }
+
+    private <A> Consumer<A> bind(Consumer<A> action) {
+        return a -> {
+            CicadaContext previous = ContextPropagation.attach(context);
+            try {
+                action.accept(a);
+            } finally {
+                ContextPropagation.restore(previous);
+            }
+        };
+    }
+
+    private <A, B> BiConsumer<A, B> bind(BiConsumer<A, B> action) {
+        return (a, b) -> {
+            CicadaContext previous = ContextPropagation.attach(context);
+            try {
+                action.accept(a, b);
+            } finally {
+                ContextPropagation.restore(previous);
+            }
+        };
+    }
+
+    private Runnable bind(Runnable action) {
+        return () -> {
+            CicadaContext previous = ContextPropagation.attach(context);
+            try {
+                action.run();
+            } finally {
+                ContextPropagation.restore(previous);
+            }
+        };
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+        return adopt(super.thenApply(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return adopt(super.thenApplyAsync(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, Executor executor) {
+        return adopt(super.thenApplyAsync(bind(fn), executor));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+        return adopt(super.thenAccept(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return adopt(super.thenAcceptAsync(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, Executor executor) {
+        return adopt(super.thenAcceptAsync(bind(action), executor));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRun(Runnable action) {
+        return adopt(super.thenRun(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(Runnable action) {
+        return adopt(super.thenRunAsync(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(Runnable action, Executor executor) {
+        return adopt(super.thenRunAsync(bind(action), executor));
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombine(CompletionStage<? extends U> other,
+                                                   BiFunction<? super T, ? super U, ? extends V> fn) {
+        return adopt(super.thenCombine(other, bind(fn)));
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other,
+                                                        BiFunction<? super T, ? super U, ? extends V> fn) {
+        return adopt(super.thenCombineAsync(other, bind(fn)));
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(CompletionStage<? extends U> other,
+                                                        BiFunction<? super T, ? super U, ? extends V> fn, Executor executor) {
+        return adopt(super.thenCombineAsync(other, bind(fn), executor));
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBoth(CompletionStage<? extends U> other,
+                                                      BiConsumer<? super T, ? super U> action) {
+        return adopt(super.thenAcceptBoth(other, bind(action)));
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+                                                           BiConsumer<? super T, ? super U> action) {
+        return adopt(super.thenAcceptBothAsync(other, bind(action)));
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(CompletionStage<? extends U> other,
+                                                           BiConsumer<? super T, ? super U> action, Executor executor) {
+        return adopt(super.thenAcceptBothAsync(other, bind(action), executor));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBoth(CompletionStage<?> other, Runnable action) {
+        return adopt(super.runAfterBoth(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action) {
+        return adopt(super.runAfterBothAsync(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return adopt(super.runAfterBothAsync(other, bind(action), executor));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEither(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return adopt(super.applyToEither(other, bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return adopt(super.applyToEitherAsync(other, bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(CompletionStage<? extends T> other, Function<? super T, U> fn,
+                                                       Executor executor) {
+        return adopt(super.applyToEitherAsync(other, bind(fn), executor));
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEither(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return adopt(super.acceptEither(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action) {
+        return adopt(super.acceptEitherAsync(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(CompletionStage<? extends T> other, Consumer<? super T> action,
+                                                     Executor executor) {
+        return adopt(super.acceptEitherAsync(other, bind(action), executor));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEither(CompletionStage<?> other, Runnable action) {
+        return adopt(super.runAfterEither(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action) {
+        return adopt(super.runAfterEitherAsync(other, bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(CompletionStage<?> other, Runnable action, Executor executor) {
+        return adopt(super.runAfterEitherAsync(other, bind(action), executor));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenCompose(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return adopt(super.thenCompose(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn) {
+        return adopt(super.thenComposeAsync(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(Function<? super T, ? extends CompletionStage<U>> fn,
+                                                     Executor executor) {
+        return adopt(super.thenComposeAsync(bind(fn), executor));
+    }
+
+    @Override
+    public CompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        return adopt(super.whenComplete(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return adopt(super.whenCompleteAsync(bind(action)));
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action, Executor executor) {
+        return adopt(super.whenCompleteAsync(bind(action), executor));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return adopt(super.handle(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return adopt(super.handleAsync(bind(fn)));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn, Executor executor) {
+        return adopt(super.handleAsync(bind(fn), executor));
+    }
+
+    @Override
+    public CompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        return adopt(super.exceptionally(bind(fn)));
+    }
+}
@@ -0,0 +1,206 @@
+package top.crossoverjie.cicada.server.thread;
+
+import top.crossoverjie.cicada.server.context.CicadaContext;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function: carry the {@link CicadaContext} of a request across threads.
+ *
+ * The context is captured when a task is wrapped and attached on the thread running it.
+ * The previous value of that thread is put back afterwards instead of removing the entry,
+ * so a pooled or event loop thread neither leaks one request's context into another nor
+ * churns its thread local map.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ContextPropagation {
+
+    private ContextPropagation() {
+    }
+
+    /**
+     * the context is no longer recycled, the task may run after the response was written
+     * @return context of the current thread, may be null
+     */
+    public static CicadaContext capture() {
+        CicadaContext context = ThreadLocalHolder.getCicadaContext();
+        if (context != null && !context.isCaptured()) {
+            context.markCaptured();
+        }
+        return context;
+    }
+
+    /**
+     * attach a captured context to the current thread
+     * @param context captured context, may be null
+     * @return the context it replaced, pass it to {@link #restore(CicadaContext)}
+     */
+    public static CicadaContext attach(CicadaContext context) {
+        CicadaContext previous = ThreadLocalHolder.getCicadaContext();
+        if (previous != context) {
+            ThreadLocalHolder.setCicadaContext(context);
+        }
+        return previous;
+    }
+
+    /**
+     * @param previous value returned by {@link #attach(CicadaContext)}
+     */
+    public static void restore(CicadaContext previous) {
+        if (ThreadLocalHolder.getCicadaContext() != previous) {
+            ThreadLocalHolder.setCicadaContext(previous);
+        }
+    }
+
+    /**
+     * @param task task
+     * @return task running with the context of the caller
+     */
+    public static Runnable wrap(Runnable task) {
+        CicadaContext context = capture();
+        if (context == null || task instanceof ContextRunnable) {
+            return task;
+        }
+        return new ContextRunnable(context, task);
+    }
+
+    /**
+     * @param task task
+     * @return task running with the context of the caller
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        CicadaContext context = capture();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            CicadaContext previous = attach(context);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Every dependent stage of the returned future runs with the context of the caller,
+     * whichever thread completes the stage or calls get()/join(), the *Async ones included.
+     * @param stage stage completed on another thread, e.g. by a client library
+     * @return future completed with the result of the stage
+     */
+    public static <T> CompletableFuture<T> wrap(CompletionStage<T> stage) {
+        CompletableFuture<T> future = new ContextFuture<>(capture());
+        stage.whenComplete((value, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param executor executor
+     * @return executor running every task with the context of the thread submitting it
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ExecutorService) {
+            return wrap((ExecutorService) executor);
+        }
+        return executor instanceof ContextExecutor ? executor : new ContextExecutor(executor);
+    }
+
+    /**
+     * @param executor executor service, shutdown is delegated
+     * @return executor service running every task with the context of the thread submitting it
+     */
+    public static ExecutorService wrap(ExecutorService executor) {
+        return executor instanceof ContextExecutorService ? executor : new ContextExecutorService(executor);
+    }
+
+    private static final class ContextRunnable implements Runnable {
+        private final CicadaContext context;
+
+        private final Runnable task;
+
+        private ContextRunnable(CicadaContext context, Runnable task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            CicadaContext previous = attach(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        }
+    }
+
+    private static final class ContextExecutor implements Executor {
+        private final Executor delegate;
+
+        private ContextExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+    }
+
+    /**
+     * submit/invoke* build their FutureTask on the caller and end in execute()
+     */
+    private static final class ContextExecutorService extends AbstractExecutorService {
+        private final ExecutorService delegate;
+
+        private ContextExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
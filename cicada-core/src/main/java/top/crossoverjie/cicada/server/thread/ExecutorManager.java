@@ -0,0 +1,175 @@
+package top.crossoverjie.cicada.server.thread;
+
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.config.AppConfig;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
+import top.crossoverjie.cicada.server.route.Route;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_BULKHEAD_NAME;
+import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_VIRTUAL_NAME;
+import static top.crossoverjie.cicada.server.constant.CicadaConstant.SystemProperties.APPLICATION_WORKER_NAME;
+
+/**
+ * Function: holds the business executors which route actions are offloaded to
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class ExecutorManager {
+
+    private final static Logger LOGGER = LoggerBuilder.getLogger(ExecutorManager.class);
+
+    private volatile static ExecutorManager executorManager;
+
+    private final AppConfig appConfig = AppConfig.getInstance();
+
+    private volatile InstrumentedThreadPoolExecutor worker;
+
+    private volatile Executor virtual;
+
+    /**
+     * bulkhead name -> its own pool
+     */
+    private final ConcurrentHashMap<String, InstrumentedThreadPoolExecutor> bulkheads = new ConcurrentHashMap<>(8);
+
+    private ExecutorManager() {
+    }
+
+    public static ExecutorManager getInstance() {
+        if (executorManager == null) {
+            synchronized (ExecutorManager.class) {
+                if (executorManager == null) {
+                    executorManager = new ExecutorManager();
+                }
+            }
+        }
+        return executorManager;
+    }
+
+    /**
+     * create the executor of [cicada.execution.mode] eagerly, others are created on first use
+     */
+    public void init() {
+        executor(appConfig.getExecutionMode());
+    }
+
+    /**
+     * get executor by execution mode
+     * @param mode mode of the route, DEFAULT follows [cicada.execution.mode]
+     * @return executor, null when the action should run on the event loop
+     */
+    public Executor executor(ExecutionMode mode) {
+        if (mode == ExecutionMode.DEFAULT) {
+            mode = appConfig.getExecutionMode();
+        }
+        switch (mode) {
+            case WORKER:
+                return worker();
+            case VIRTUAL:
+                return virtual();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * get executor of a route
+     * @param route matched route, null when no route matches
+     * @return bulkhead of the route when it declares one, otherwise the executor of its mode
+     */
+    public Executor executor(Route route) {
+        if (route == null) {
+            return executor(ExecutionMode.DEFAULT);
+        }
+        if (route.getBulkhead() != null) {
+            return bulkhead(route.getBulkhead());
+        }
+        return executor(route.getMode());
+    }
+
+    /**
+     * @param route matched route, null when no route matches
+     * @return true when the route runs on a virtual thread, false when VIRTUAL fell back to the worker pool
+     */
+    public boolean isVirtual(Route route) {
+        return executor(route) instanceof VirtualThreadExecutor;
+    }
+
+    /**
+     * a bulkhead never runs its routes on the caller, a full bulkhead rejects with 503
+     * so a slow route can not take the threads of the others
+     * @param name bulkhead name declared by @CicadaRoute or @CicadaAction
+     * @return bounded pool of the bulkhead
+     */
+    public Executor bulkhead(String name) {
+        InstrumentedThreadPoolExecutor bulkhead = bulkheads.get(name);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        return bulkheads.computeIfAbsent(name, key -> {
+            int threads = appConfig.getBulkheadThreads(key);
+            int queueSize = appConfig.getBulkheadQueueSize(key);
+            LOGGER.info("Bulkhead [{}] started, threads={} queue={}", key, threads, queueSize);
+            return new InstrumentedThreadPoolExecutor(APPLICATION_BULKHEAD_NAME + "." + key, threads, queueSize, RejectPolicy.ABORT);
+        });
+    }
+
+    /**
+     * @return bounded business worker pool
+     */
+    public Executor worker() {
+        if (worker == null) {
+            synchronized (this) {
+                if (worker == null) {
+                    worker = new InstrumentedThreadPoolExecutor(APPLICATION_WORKER_NAME,
+                            appConfig.getWorkerThreads(), appConfig.getWorkerQueueSize(), appConfig.getWorkerRejectPolicy());
+                    LOGGER.info("Business worker pool started, threads={} queue={} reject={}",
+                            appConfig.getWorkerThreads(), appConfig.getWorkerQueueSize(), appConfig.getWorkerRejectPolicy());
+                }
+            }
+        }
+        return worker;
+    }
+
+    /**
+     * @return virtual thread per task executor, or the worker pool when the JVM has no virtual threads
+     */
+    public Executor virtual() {
+        if (virtual == null) {
+            synchronized (this) {
+                if (virtual == null) {
+                    Executor executor = VirtualThreadExecutor.create(APPLICATION_VIRTUAL_NAME);
+                    if (executor == null) {
+                        LOGGER.info("Fall back to the business worker pool for virtual routes");
+                        executor = worker();
+                    }
+                    virtual = executor;
+                }
+            }
+        }
+        return virtual;
+    }
+
+    /**
+     * shutdown all executors
+     */
+    public synchronized void shutdown() {
+        if (virtual instanceof VirtualThreadExecutor) {
+            ((VirtualThreadExecutor) virtual).shutdown();
+        }
+        virtual = null;
+        for (InstrumentedThreadPoolExecutor bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+        bulkheads.clear();
+        if (worker != null) {
+            worker.shutdown();
+            worker = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package top.crossoverjie.cicada.server.thread;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Function: bounded thread pool which records queue depth, rejections and task time
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder taskNanos = new LongAdder();
+
+    private final ThreadLocal<Long> startTime = new ThreadLocal<>();
+
+    /**
+     * @param name pool name and metric prefix, e.g. cicada.worker
+     * @param threads fixed number of threads
+     * @param queueSize max number of waiting tasks, taken by priority then arrival order
+     * @param policy reject policy when the queue is full
+     */
+    public InstrumentedThreadPoolExecutor(String name, int threads, int queueSize, RejectPolicy policy) {
+        this(name, threads, new PriorityTaskQueue(queueSize), policy);
+    }
+
+    protected InstrumentedThreadPoolExecutor(String name, int threads, BlockingQueue<Runnable> queue, RejectPolicy policy) {
+        super(threads, threads, 60L, TimeUnit.SECONDS, queue, new DefaultThreadFactory(name.replace('.', '-')));
+        this.name = name;
+        setRejectedExecutionHandler(new CountingRejectHandler(policy));
+        registerMetrics();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        super.execute(command);
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        startTime.set(System.nanoTime());
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        Long start = startTime.get();
+        if (start != null) {
+            taskNanos.add(System.nanoTime() - start);
+        }
+        completed.increment();
+    }
+
+    @Override
+    protected void terminated() {
+        CicadaMetrics metrics = CicadaMetrics.getInstance();
+        for (String metric : new String[]{"threads", "active", "queue", "submitted", "rejected", "completed", "avgTaskMicros"}) {
+            metrics.remove(name + "." + metric);
+        }
+    }
+
+    private void registerMetrics() {
+        CicadaMetrics metrics = CicadaMetrics.getInstance();
+        metrics.register(name + ".threads", this::getPoolSize);
+        metrics.register(name + ".active", this::getActiveCount);
+        metrics.register(name + ".queue", this::getQueueDepth);
+        metrics.register(name + ".submitted", submitted::sum);
+        metrics.register(name + ".rejected", rejected::sum);
+        metrics.register(name + ".completed", completed::sum);
+        metrics.register(name + ".avgTaskMicros", this::getAvgTaskMicros);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getAvgTaskMicros() {
+        long count = completed.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(taskNanos.sum() / count);
+    }
+
+    private class CountingRejectHandler implements RejectedExecutionHandler {
+
+        private final RejectPolicy policy;
+
+        private CountingRejectHandler(RejectPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (policy == RejectPolicy.CALLER_RUNS && !executor.isShutdown()) {
+                r.run();
+                return;
+            }
+            rejected.increment();
+            throw new RejectedExecutionException("[" + name + "] is saturated, queue depth " + executor.getQueue().size());
+        }
+    }
+}
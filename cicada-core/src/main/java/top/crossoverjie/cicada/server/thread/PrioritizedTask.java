@@ -0,0 +1,35 @@
+package top.crossoverjie.cicada.server.thread;
+
+import top.crossoverjie.cicada.server.enums.Priority;
+
+/**
+ * Function: task carrying the priority of its route, ordered by {@link PriorityTaskQueue}
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class PrioritizedTask implements Runnable {
+
+    private final Priority priority;
+
+    private final Runnable task;
+
+    /**
+     * arrival order, set by the queue
+     */
+    long sequence;
+
+    public PrioritizedTask(Priority priority, Runnable task) {
+        this.priority = priority;
+        this.task = task;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+}
@@ -0,0 +1,55 @@
+package top.crossoverjie.cicada.server.thread;
+
+import top.crossoverjie.cicada.server.enums.Priority;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Function: bounded work queue taking HIGH priority tasks first and tasks of the same priority in arrival order.
+ * A full queue refuses the task, so the pool applies its reject policy as with an ArrayBlockingQueue.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+final class PriorityTaskQueue extends PriorityBlockingQueue<Runnable> {
+
+    private static final Comparator<Runnable> ORDER = Comparator
+            .comparing((Runnable task) -> ((PrioritizedTask) task).getPriority())
+            .thenComparingLong(task -> ((PrioritizedTask) task).sequence);
+
+    private final int capacity;
+
+    /**
+     * guarded by this
+     */
+    private long sequence;
+
+    PriorityTaskQueue(int capacity) {
+        super(Math.max(1, Math.min(capacity, 256)), ORDER);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * put, add and the timed offer all end up here
+     */
+    @Override
+    public synchronized boolean offer(Runnable task) {
+        if (size() >= capacity) {
+            return false;
+        }
+        // 没有优先级的任务(如线程池内部提交的)按NORMAL处理
+        PrioritizedTask prioritized = task instanceof PrioritizedTask
+                ? (PrioritizedTask) task : new PrioritizedTask(Priority.NORMAL, task);
+        prioritized.sequence = sequence++;
+        return super.offer(prioritized);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+}
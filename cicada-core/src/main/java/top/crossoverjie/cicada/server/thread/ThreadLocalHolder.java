@@ -6,6 +6,10 @@ import top.crossoverjie.cicada.server.context.CicadaContext;
 /**
  * Function:
  *
+ * Netty and worker threads are FastThreadLocalThread and use the indexed fast path,
+ * other threads (e.g. virtual threads) fall back to a plain ThreadLocal backed map which
+ * is still isolated per thread.
+ *
  * @author crossoverJie
  *         Date: 2018/9/10 19:50
  * @since JDK 1.8
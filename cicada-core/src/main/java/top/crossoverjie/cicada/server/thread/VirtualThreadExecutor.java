@@ -0,0 +1,72 @@
+package top.crossoverjie.cicada.server.thread;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Function: one virtual thread per task, only available on JDK 21+.
+ *
+ * The framework is compiled for JDK 1.8, so the virtual thread factory is looked up reflectively.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class VirtualThreadExecutor implements Executor {
+
+    private final static Logger LOGGER = LoggerBuilder.getLogger(VirtualThreadExecutor.class);
+
+    private final ExecutorService delegate;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+
+    private VirtualThreadExecutor(String name, ExecutorService delegate) {
+        this.delegate = delegate;
+        CicadaMetrics.getInstance().register(name + ".submitted", submitted::sum);
+        CicadaMetrics.getInstance().register(name + ".inFlight", inFlight::sum);
+    }
+
+    /**
+     * @param name metric prefix
+     * @return executor or null when the JVM does not support virtual threads
+     */
+    public static VirtualThreadExecutor create(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new VirtualThreadExecutor(name, (ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException e) {
+            LOGGER.info("Virtual threads are not supported by JDK {}", System.getProperty("java.version"));
+        } catch (Exception e) {
+            // JDK 19/20 without --enable-preview
+            LOGGER.warn("Virtual threads are not available: {}", e.toString());
+        }
+        return null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        delegate.execute(() -> {
+            inFlight.increment();
+            try {
+                command.run();
+            } finally {
+                inFlight.decrement();
+                // virtual threads are not FastThreadLocalThread, drop the fallback InternalThreadLocalMap
+                FastThreadLocal.removeAll();
+            }
+        });
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+package top.crossoverjie.cicada.server.util;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpUtil;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Function: encode and decode http bodies without building intermediate Strings
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class BodyUtil {
+
+    private static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    private BodyUtil() {
+    }
+
+    /**
+     * UTF-8 encode without an intermediate byte[]
+     * @param content text
+     * @return pooled buffer, owned by the caller
+     */
+    public static ByteBuf utf8(CharSequence content) {
+        return ByteBufUtil.writeUtf8(ALLOCATOR, content);
+    }
+
+    /**
+     * serialize an object as JSON without building a String first
+     * @param object bean
+     * @return pooled buffer, owned by the caller
+     */
+    public static ByteBuf json(Object object) {
+        ByteBuf buf = ALLOCATOR.buffer();
+        try (ByteBufOutputStream out = new ByteBufOutputStream(buf)) {
+            JSON.writeJSONString(out, object);
+            return buf;
+        } catch (IOException | RuntimeException e) {
+            buf.release();
+            throw new CicadaException("Write json failed", e);
+        }
+    }
+
+    /**
+     * @param contentType Content-Type header
+     * @return true for application/json and application/*+json
+     */
+    public static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        CharSequence mimeType = HttpUtil.getMimeType(contentType);
+        if (mimeType == null) {
+            mimeType = contentType;
+        }
+        String mime = mimeType.toString().trim();
+        return HttpHeaderValues.APPLICATION_JSON.contentEqualsIgnoreCase(mime) || mime.toLowerCase().endsWith("+json");
+    }
+
+    /**
+     * deserialize a JSON body. The stream is decoded and scanned chunk by chunk, so neither
+     * a String nor a byte[] of the whole body is created, and it works the same for a
+     * body kept in memory or spilled to disk.
+     *
+     * @param in           body stream, closed by this method
+     * @param type         target type
+     * @param deserializer deserializer of the type, resolved once per route
+     * @param <T>          target type
+     * @return bean, null for a JSON null
+     * @throws IOException read body failed
+     */
+    public static <T> T parseJson(InputStream in, Type type, ObjectDeserializer deserializer) throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parseJson(reader, type, deserializer);
+        }
+    }
+
+    private static <T> T parseJson(Reader reader, Type type, ObjectDeserializer deserializer) {
+        DefaultJSONParser parser = new DefaultJSONParser(new JSONReaderScanner(reader), ParserConfig.getGlobalInstance());
+        try {
+            T value = deserializer.deserialze(parser, type, null);
+            parser.handleResovleTask(value);
+            return value;
+        } finally {
+            parser.close();
+        }
+    }
+}
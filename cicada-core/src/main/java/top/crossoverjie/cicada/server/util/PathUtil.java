@@ -1,5 +1,6 @@
 package top.crossoverjie.cicada.server.util;
 
+import io.netty.handler.codec.http.QueryStringDecoder;
 import top.crossoverjie.cicada.server.config.AppConfig;
 
 /**
@@ -12,6 +13,23 @@ import top.crossoverjie.cicada.server.config.AppConfig;
 public class PathUtil {
 
 
+    /**
+     * decoder of a request target, the absolute form (http://host/path) is reduced to its path
+     * @param uri request target
+     * @return decoder, the path and parameters are decoded on first access
+     */
+    public static QueryStringDecoder decoder(String uri) {
+        int scheme = uri.startsWith("/") ? -1 : uri.indexOf("://");
+        if (scheme > 0) {
+            int end = scheme + 3;
+            while (end < uri.length() && uri.charAt(end) != '/' && uri.charAt(end) != '?') {
+                end++;
+            }
+            uri = end == uri.length() ? "/" : uri.charAt(end) == '?' ? "/" + uri.substring(end) : uri.substring(end);
+        }
+        return new QueryStringDecoder(uri);
+    }
+
     /**
      * Get Root Path
      * /cicada-example/demoAction
@@ -0,0 +1,22 @@
+package top.crossoverjie.cicada.server;
+
+import org.junit.Assume;
+
+/**
+ * Timing loops only log numbers, they are skipped unless the build runs with -Dbenchmark=true,
+ * e.g. mvn test -Dbenchmark=true -Dtest=ExecutionModeBenchmarkTest
+ */
+public final class Benchmark {
+
+    public static final String PROPERTY = "benchmark";
+
+    private Benchmark() {
+    }
+
+    /**
+     * skip the calling test unless benchmarks are enabled
+     */
+    public static void assumeEnabled() {
+        Assume.assumeTrue("timing loop, enable with -D" + PROPERTY + "=true", Boolean.getBoolean(PROPERTY));
+    }
+}
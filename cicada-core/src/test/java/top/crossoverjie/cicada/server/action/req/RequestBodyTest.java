@@ -0,0 +1,79 @@
+package top.crossoverjie.cicada.server.action.req;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+public class RequestBodyTest {
+
+    @Test
+    public void inMemory() throws Exception {
+        RequestBody body = new RequestBody(1024, 4096);
+        ByteBuf chunk = Unpooled.copiedBuffer("hello ", StandardCharsets.UTF_8);
+        Assert.assertTrue(body.append(chunk));
+        Assert.assertTrue(body.append(Unpooled.copiedBuffer("cicada", StandardCharsets.UTF_8)));
+
+        // the caller keeps its reference
+        Assert.assertEquals(2, chunk.refCnt());
+        chunk.release();
+
+        Assert.assertTrue(body.isInMemory());
+        Assert.assertEquals(12, body.size());
+        Assert.assertEquals("hello cicada", body.toString(StandardCharsets.UTF_8));
+        Assert.assertEquals("hello cicada", read(body.inputStream()));
+
+        Assert.assertEquals(1, chunk.refCnt());
+        body.close();
+        Assert.assertEquals(0, chunk.refCnt());
+    }
+
+    @Test
+    public void spill() throws Exception {
+        RequestBody body = new RequestBody(256, 1024 * 1024);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String line = "line-" + i + "\n";
+            expected.append(line);
+            Assert.assertTrue(body.append(Unpooled.copiedBuffer(line, StandardCharsets.UTF_8)));
+        }
+
+        Assert.assertFalse(body.isInMemory());
+        Assert.assertNull(body.content());
+        Assert.assertEquals(expected.length(), body.size());
+        Assert.assertEquals(expected.toString(), read(body.inputStream()));
+
+        try (ReadableByteChannel channel = body.channel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(expected.length());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            Assert.assertEquals(expected.toString(), new String(buffer.array(), StandardCharsets.UTF_8));
+        }
+        body.close();
+    }
+
+    @Test
+    public void tooLarge() throws Exception {
+        RequestBody body = new RequestBody(8, 16);
+        Assert.assertTrue(body.append(Unpooled.copiedBuffer("0123456789", StandardCharsets.UTF_8)));
+        Assert.assertFalse(body.append(Unpooled.copiedBuffer("0123456789", StandardCharsets.UTF_8)));
+    }
+
+    private String read(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[64];
+            int n;
+            while ((n = input.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package top.crossoverjie.cicada.server.action.res;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A slow client blocks the producer instead of growing the heap, the whole body arrives once it reads.
+ */
+public class ResponseStreamTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(ResponseStreamTest.class);
+
+    private static final long TOTAL = 64L * 1024 * 1024;
+
+    private final AtomicLong written = new AtomicLong();
+
+    private EventLoopGroup group;
+
+    private ExecutorService worker;
+
+    private int port;
+
+    @Before
+    public void start() throws Exception {
+        group = new NioEventLoopGroup(1);
+        worker = Executors.newSingleThreadExecutor();
+        Channel channel = new ServerBootstrap()
+                .group(group)
+                .channel(io.netty.channel.socket.nio.NioServerSocketChannel.class)
+                .childOption(ChannelOption.SO_SNDBUF, 64 * 1024)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new HttpRequestDecoder())
+                                .addLast(new HttpResponseEncoder())
+                                .addLast(new ChunkedWriteHandler())
+                                .addLast(new StreamHandler());
+                    }
+                })
+                .bind(0).sync().channel();
+        port = ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @After
+    public void stop() {
+        group.shutdownGracefully();
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void backpressure() throws Exception {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(64 * 1024);
+            socket.connect(new InetSocketAddress("127.0.0.1", port));
+            socket.getOutputStream().write("GET /export HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+
+            // the client does not read, the producer must stop long before the end
+            Thread.sleep(1000);
+            long blocked = written.get();
+            LOGGER.info("written while the client does not read=[{}] bytes", blocked);
+            Assert.assertTrue(blocked < TOTAL / 4);
+
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[64 * 1024];
+            long received = 0;
+            byte[] tail = new byte[5];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received += read;
+                for (int i = 0; i < read; i++) {
+                    System.arraycopy(tail, 1, tail, 0, 4);
+                    tail[4] = buffer[i];
+                }
+                if (new String(tail, StandardCharsets.US_ASCII).equals("0\r\n\r\n") && received > TOTAL) {
+                    break;
+                }
+            }
+            Assert.assertTrue(received > TOTAL);
+            Assert.assertEquals(TOTAL, written.get());
+        }
+    }
+
+    private final class StreamHandler extends SimpleChannelInboundHandler<HttpObject> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+            if (!(msg instanceof HttpRequest)) {
+                return;
+            }
+            worker.execute(() -> {
+                ResponseStream stream = new ResponseStream(ctx.channel(), ctx.pipeline().get(ChunkedWriteHandler.class));
+                HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                HttpUtil.setTransferEncodingChunked(response, true);
+                ctx.executor().execute(() -> {
+                    ctx.write(response);
+                    ctx.writeAndFlush(new HttpChunkedInput(stream.input()));
+                });
+
+                byte[] row = new byte[1024];
+                try {
+                    while (written.get() < TOTAL) {
+                        stream.write(row);
+                        written.addAndGet(row.length);
+                    }
+                    stream.close();
+                } catch (Exception e) {
+                    stream.abort();
+                }
+            });
+        }
+    }
+}
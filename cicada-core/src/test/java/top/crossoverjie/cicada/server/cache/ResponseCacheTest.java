@@ -0,0 +1,163 @@
+package top.crossoverjie.cicada.server.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.action.res.WorkRes;
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+import top.crossoverjie.cicada.server.util.BodyUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ResponseCacheTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(ResponseCacheTest.class);
+
+    private static final String JSON = "application/json; charset=UTF-8";
+
+    @Test
+    public void hitAndExpire() throws Exception {
+        ResponseCache cache = new ResponseCache("test.cache.hit", 1024 * 1024, false);
+        Assert.assertNull(cache.get("/user"));
+
+        ByteBuf body = Unpooled.copiedBuffer("{\"id\":1}", CharsetUtil.UTF_8);
+        cache.put("/user", 50, JSON, Collections.singletonMap("X-Version", "1"), body);
+        // 原内容不受影响，仍由调用方写出
+        Assert.assertEquals(8, body.readableBytes());
+        body.release();
+
+        CachedResponse cached = cache.get("/user");
+        Assert.assertNotNull(cached);
+        Assert.assertEquals(JSON, cached.getContentType());
+        Assert.assertEquals("1", cached.getHeaders().get("X-Version"));
+        ByteBuf content = cached.retainedContent();
+        Assert.assertEquals("{\"id\":1}", content.toString(CharsetUtil.UTF_8));
+        content.release();
+
+        Assert.assertEquals(1L, CicadaMetrics.getInstance().get("test.cache.hit.hits"));
+        Assert.assertEquals(0.5, cache.getHitRate(), 0.001);
+
+        TimeUnit.MILLISECONDS.sleep(80);
+        Assert.assertNull(cache.get("/user"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getWeightedSize());
+        Assert.assertNull(cached.retainedContent());
+    }
+
+    @Test
+    public void key() {
+        QueryStringDecoder decoder = new QueryStringDecoder("/cicada-example/user?id=1&page=2&ts=99");
+        Assert.assertEquals("/cicada-example/user", ResponseCache.key(decoder.path(), decoder, new String[0]));
+        Assert.assertEquals("/cicada-example/user?page=1:2&id=1:1&lang",
+                ResponseCache.key(decoder.path(), decoder, new String[]{"page", "id", "lang"}));
+
+        // absent and empty differ
+        QueryStringDecoder empty = new QueryStringDecoder("/cicada-example/user?lang=");
+        Assert.assertNotEquals(ResponseCache.key(empty.path(), empty, new String[]{"lang"}),
+                ResponseCache.key(decoder.path(), decoder, new String[]{"lang"}));
+
+        // a separator inside a value does not shift it into the next parameter
+        QueryStringDecoder first = new QueryStringDecoder("/cicada-example/user?a=1%26b%3D2&b=");
+        QueryStringDecoder second = new QueryStringDecoder("/cicada-example/user?a=1&b=2%26b%3D");
+        Assert.assertNotEquals(ResponseCache.key(first.path(), first, new String[]{"a", "b"}),
+                ResponseCache.key(second.path(), second, new String[]{"a", "b"}));
+    }
+
+    @Test
+    public void frequencyBeatsRecency() {
+        ResponseCache cache = new ResponseCache("test.cache.tinylfu", 25_000, false);
+        byte[] page = new byte[1000];
+        for (int i = 0; i < 10; i++) {
+            put(cache, "/hot/" + i, page);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertNotNull(cache.get("/hot/" + i));
+            }
+        }
+
+        // 大量只访问一次的key，LRU会把热点全部挤出
+        for (int i = 0; i < 500; i++) {
+            put(cache, "/scan/" + i, page);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull("/hot/" + i, cache.get("/hot/" + i));
+        }
+        Assert.assertTrue(cache.getWeightedSize() <= 25_000);
+        // 新来的一次性key频率不高于淘汰候选，不被接纳
+        Assert.assertNull(cache.get("/scan/250"));
+        Assert.assertTrue(CicadaMetrics.getInstance().get("test.cache.tinylfu.evictions").longValue() > 0);
+    }
+
+    @Test
+    public void offHeap() {
+        ResponseCache cache = new ResponseCache("test.cache.offheap", 1024 * 1024, true);
+        put(cache, "/report", new byte[512]);
+        ByteBuf content = cache.get("/report").retainedContent();
+        Assert.assertTrue(content.isDirect());
+        Assert.assertEquals(512, content.readableBytes());
+        content.release();
+        cache.clear();
+        Assert.assertEquals(0, cache.getWeightedSize());
+    }
+
+    @Test
+    public void benchmark() {
+        Benchmark.assumeEnabled();
+        ResponseCache cache = new ResponseCache("test.cache.benchmark", 1024 * 1024, true);
+        Map<String, Object> user = new HashMap<>();
+        user.put("id", 1);
+        user.put("name", "crossoverJie");
+        user.put("roles", new String[]{"admin", "dev"});
+        WorkRes<Map<String, Object>> res = new WorkRes<>();
+        res.setCode("9000");
+        res.setMessage("success");
+        res.setDataBody(user);
+        ByteBuf json = BodyUtil.json(res);
+        cache.put("/user?id=1", 60_000, JSON, Collections.emptyMap(), json);
+        json.release();
+
+        int loops = 200_000;
+        // warm up
+        hits(cache, loops / 4);
+        serialize(res, loops / 4);
+
+        long start = System.nanoTime();
+        hits(cache, loops);
+        long hit = System.nanoTime() - start;
+        start = System.nanoTime();
+        serialize(res, loops);
+        long serialize = System.nanoTime() - start;
+        LOGGER.info("requests=[{}] cache hit=[{}]ms json serialization=[{}]ms",
+                loops, TimeUnit.NANOSECONDS.toMillis(hit), TimeUnit.NANOSECONDS.toMillis(serialize));
+        cache.clear();
+    }
+
+    private static void hits(ResponseCache cache, int loops) {
+        QueryStringDecoder decoder = new QueryStringDecoder("/user?id=1&ts=1");
+        String[] keys = {"id"};
+        for (int i = 0; i < loops; i++) {
+            ResponseCache.key(decoder.path(), decoder, keys);
+            cache.get("/user?id=1").retainedContent().release();
+        }
+    }
+
+    private static void serialize(WorkRes<?> res, int loops) {
+        for (int i = 0; i < loops; i++) {
+            BodyUtil.json(res).release();
+        }
+    }
+
+    private static void put(ResponseCache cache, String key, byte[] body) {
+        cache.put(key, 60_000, JSON, Collections.emptyMap(), Unpooled.wrappedBuffer(body));
+    }
+}
@@ -0,0 +1,80 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.constant.CicadaConstant;
+
+import java.nio.charset.StandardCharsets;
+
+public class ContentCompressorTest {
+
+    @Test
+    public void compressLargeJson() {
+        HttpResponse response = roundTrip("gzip, deflate", json(4096), CicadaConstant.ContentType.JSON);
+        Assert.assertEquals("gzip", response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        Assert.assertEquals("accept-encoding", response.headers().get(HttpHeaderNames.VARY));
+    }
+
+    @Test
+    public void skipSmallOrIncompressible() {
+        Assert.assertNull(roundTrip("gzip", json(100), CicadaConstant.ContentType.JSON).headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        Assert.assertNull(roundTrip("gzip", json(4096), "image/png").headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        Assert.assertNull(roundTrip(null, json(4096), CicadaConstant.ContentType.JSON).headers().get(HttpHeaderNames.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void identityPassesThrough() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ContentCompressor(6, 1024));
+        channel.writeInbound(request("gzip"));
+        HttpResponse head = ContentCompressor.identity(HttpResponseStatus.OK);
+        head.headers().set(HttpHeaderNames.CONTENT_TYPE, CicadaConstant.ContentType.TEXT);
+        channel.writeOutbound(head, new DefaultLastHttpContent(Unpooled.copiedBuffer(json(4096), StandardCharsets.UTF_8)));
+        HttpResponse response = channel.readOutbound();
+        Assert.assertNull(response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void acceptsGzip() {
+        Assert.assertTrue(ContentCompressor.acceptsGzip("gzip, deflate, br"));
+        Assert.assertTrue(ContentCompressor.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        Assert.assertTrue(ContentCompressor.acceptsGzip("*"));
+        Assert.assertFalse(ContentCompressor.acceptsGzip("gzip;q=0"));
+        Assert.assertFalse(ContentCompressor.acceptsGzip("deflate"));
+        Assert.assertFalse(ContentCompressor.acceptsGzip(null));
+    }
+
+    private static HttpResponse roundTrip(String acceptEncoding, String body, String contentType) {
+        EmbeddedChannel channel = new EmbeddedChannel(new ContentCompressor(6, 1024));
+        channel.writeInbound(request(acceptEncoding));
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                Unpooled.copiedBuffer(body, StandardCharsets.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType);
+        response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        channel.writeOutbound(response);
+        HttpResponse out = channel.readOutbound();
+        ReferenceCountUtil.release(out);
+        channel.finishAndReleaseAll();
+        return out;
+    }
+
+    private static HttpRequest request(String acceptEncoding) {
+        HttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/cicada-example/demoAction");
+        if (acceptEncoding != null) {
+            request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return request;
+    }
+
+    private static String json(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        while (sb.length() < size) {
+            sb.append("{\"id\":1,\"name\":\"cicada\"},");
+        }
+        return sb.append("{}]").toString();
+    }
+}
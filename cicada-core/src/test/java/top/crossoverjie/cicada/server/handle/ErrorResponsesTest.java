@@ -0,0 +1,84 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.action.res.WorkRes;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+import top.crossoverjie.cicada.server.util.BodyUtil;
+
+import java.nio.charset.StandardCharsets;
+
+public class ErrorResponsesTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(ErrorResponsesTest.class);
+
+    private static final int LOOPS = 1000000;
+
+    @Test
+    public void status() {
+        Assert.assertEquals(404, ErrorResponses.status(new CicadaException(StatusEnum.NOT_FOUND)));
+        Assert.assertEquals(404, ErrorResponses.status(new CicadaException(StatusEnum.REQUEST_ERROR, "/other")));
+        Assert.assertEquals(500, ErrorResponses.status(new CicadaException("boom")));
+        Assert.assertEquals(500, ErrorResponses.status(new IllegalStateException()));
+    }
+
+    @Test
+    public void stackless() {
+        Assert.assertEquals(0, new CicadaException(StatusEnum.NOT_FOUND).getStackTrace().length);
+        Assert.assertTrue(new CicadaException(StatusEnum.DUPLICATE_IOC).getStackTrace().length > 0);
+    }
+
+    @Test
+    public void body() {
+        CicadaException e = new CicadaException(StatusEnum.NOT_FOUND);
+        ByteBuf first = ErrorResponses.body(e);
+        Assert.assertTrue(first.toString(StandardCharsets.UTF_8).contains("\"code\":\"404\""));
+        // the encoder releases what it wrote, the next request still gets the whole body
+        first.skipBytes(first.readableBytes()).release();
+        ByteBuf second = ErrorResponses.body(e);
+        Assert.assertEquals(first.writerIndex(), second.readableBytes());
+        Assert.assertTrue(ErrorResponses.body(new IllegalStateException()).toString(StandardCharsets.UTF_8).contains("\"code\":\"500\""));
+    }
+
+    @Test
+    public void benchmark() {
+        Benchmark.assumeEnabled();
+        // warm up
+        notFound(true, LOOPS / 4);
+        notFound(false, LOOPS / 4);
+
+        long withStack = notFound(true, LOOPS);
+        long stackless = notFound(false, LOOPS);
+        LOGGER.info("404 with stack trace and encoded body=[{}]ns, stackless with preencoded body=[{}]ns", withStack, stackless);
+    }
+
+    /**
+     * @return ns per not found request
+     */
+    private long notFound(boolean stack, int loops) {
+        long start = System.nanoTime();
+        int bytes = 0;
+        for (int i = 0; i < loops; i++) {
+            CicadaException e = stack ? new CicadaException("404", StatusEnum.NOT_FOUND.getMessage())
+                    : new CicadaException(StatusEnum.NOT_FOUND);
+            ByteBuf body;
+            if (stack) {
+                WorkRes<Void> workRes = new WorkRes<>();
+                workRes.setCode(e.getErrorCode());
+                workRes.setMessage(e.getErrorMessage());
+                body = BodyUtil.json(workRes);
+            } else {
+                body = ErrorResponses.body(e);
+            }
+            bytes += body.readableBytes();
+            body.release();
+        }
+        Assert.assertTrue(bytes > 0);
+        return (System.nanoTime() - start) / loops;
+    }
+}
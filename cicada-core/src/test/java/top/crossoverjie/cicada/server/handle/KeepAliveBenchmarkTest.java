@@ -0,0 +1,146 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.init.CicadaInitializer;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Response order of pipelined requests that finish out of order, and requests/sec with and
+ * without keep-alive, on the pipeline of CicadaInitializer and HttpDispatcher.
+ */
+public class KeepAliveBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(KeepAliveBenchmarkTest.class);
+
+    private static final int REQUESTS = 5000;
+
+    private static final String ACTION = TestAction.ROOT_PATH + "/testAction";
+
+    private EventLoopGroup group;
+
+    private int port;
+
+    @Before
+    public void start() throws Exception {
+        TestAction.load();
+        group = new NioEventLoopGroup(2);
+        Channel channel = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new CicadaInitializer())
+                .bind(0).sync().channel();
+        port = ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @After
+    public void stop() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void pipelining() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(5000);
+            // the first request runs on the worker pool and finishes last
+            String requests = request(ACTION + "/sleep?ms=200", true)
+                    + request(ACTION + "/echo?id=1", true) + request(ACTION + "/echo?id=2", true);
+            socket.getOutputStream().write(requests.getBytes(StandardCharsets.US_ASCII));
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Assert.assertEquals("slept 200", readBody(reader));
+            Assert.assertEquals("echo 1", readBody(reader));
+            Assert.assertEquals("echo 2", readBody(reader));
+        }
+    }
+
+    @Test
+    public void connectionClose() throws Exception {
+        // run checks every body, and that the server closes after Connection: close
+        run(true, 10);
+        run(false, 10);
+    }
+
+    @Test
+    public void keepAlive() throws Exception {
+        Benchmark.assumeEnabled();
+        // warm up
+        run(true, REQUESTS);
+        run(false, REQUESTS / 5);
+
+        long keepAlive = run(true, REQUESTS);
+        long close = run(false, REQUESTS);
+        LOGGER.info("requests=[{}] keep-alive=[{}] req/s close=[{}] req/s", REQUESTS,
+                REQUESTS * 1000L / Math.max(1, keepAlive), REQUESTS * 1000L / Math.max(1, close));
+    }
+
+    /**
+     * @return milliseconds the requests took, every response is checked
+     */
+    private long run(boolean keepAlive, int requests) throws Exception {
+        byte[] request = request(ACTION + "/echo?id=bench", keepAlive).getBytes(StandardCharsets.US_ASCII);
+        long start = System.currentTimeMillis();
+        Socket socket = null;
+        BufferedReader reader = null;
+        try {
+            for (int i = 0; i < requests; i++) {
+                if (socket == null) {
+                    socket = new Socket("127.0.0.1", port);
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout(5000);
+                    reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                }
+                OutputStream out = socket.getOutputStream();
+                out.write(request);
+                Assert.assertEquals("echo bench", readBody(reader));
+                if (!keepAlive) {
+                    // the server closes the connection after the response
+                    Assert.assertEquals(-1, reader.read());
+                    socket.close();
+                    socket = null;
+                }
+            }
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static String request(String uri, boolean keepAlive) {
+        return "GET " + uri + " HTTP/1.1\r\nHost: localhost\r\n" + (keepAlive ? "" : "Connection: close\r\n") + "\r\n";
+    }
+
+    private static String readBody(BufferedReader reader) throws Exception {
+        int length = 0;
+        String line;
+        while (!(line = reader.readLine()).isEmpty()) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        char[] body = new char[length];
+        int read = 0;
+        while (read < length) {
+            read += reader.read(body, read, length - read);
+        }
+        return new String(body);
+    }
+}
@@ -0,0 +1,117 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.action.param.ParamMap;
+import top.crossoverjie.cicada.server.action.req.CicadaHttpRequest;
+import top.crossoverjie.cicada.server.action.res.CicadaHttpResponse;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation and GC rate of the per request objects the dispatcher creates, with and without recycling.
+ */
+public class RecycleBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(RecycleBenchmarkTest.class);
+
+    private static final int REQUESTS = 2_000_000;
+
+    private final HttpRequest httpRequest = httpRequest();
+
+    @Test
+    public void reset() {
+        CicadaHttpRequest request = CicadaHttpRequest.init(httpRequest);
+        Assert.assertEquals("1", request.getCookie("session").getValue());
+        CicadaHttpResponse response = CicadaHttpResponse.init();
+        response.setHeaders("X-Trace", "1");
+        CicadaContext.newInstance(request, response).recycle();
+
+        CicadaHttpRequest reused = CicadaHttpRequest.init(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/other"));
+        Assert.assertSame(request, reused);
+        Assert.assertNull(reused.getCookie("session"));
+        Assert.assertEquals("/other", reused.getUrl());
+        CicadaHttpResponse reusedResponse = CicadaHttpResponse.init();
+        Assert.assertSame(response, reusedResponse);
+        Assert.assertTrue(reusedResponse.getHeaders().isEmpty());
+        Assert.assertNull(reusedResponse.content());
+    }
+
+    @Test
+    public void recyclingAllocatesLess() {
+        // per thread allocation counters are a HotSpot extension
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        run(false, 20_000);
+        run(true, 20_000);
+
+        long allocate = run(false, 20_000)[0];
+        long recycle = run(true, 20_000)[0];
+        Assert.assertTrue("recycled=" + recycle + " new=" + allocate + " bytes/request", recycle < allocate);
+    }
+
+    @Test
+    public void benchmark() {
+        Benchmark.assumeEnabled();
+        // warm up
+        run(false, REQUESTS / 4);
+        run(true, REQUESTS / 4);
+
+        long[] allocate = run(false, REQUESTS);
+        long[] recycle = run(true, REQUESTS);
+        LOGGER.info("requests=[{}] new: bytes/request=[{}] gc count=[{}] gc time=[{}]ms, recycled: bytes/request=[{}] gc count=[{}] gc time=[{}]ms",
+                REQUESTS, allocate[0], allocate[1], allocate[2], recycle[0], recycle[1], recycle[2]);
+    }
+
+    /**
+     * @return allocated bytes per request, gc count, gc time
+     */
+    private long[] run(boolean recycle, int requests) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long[] gc = gc();
+        for (int i = 0; i < requests; i++) {
+            CicadaHttpRequest request = CicadaHttpRequest.init(httpRequest);
+            CicadaHttpResponse response = CicadaHttpResponse.init();
+            CicadaContext context = recycle ? CicadaContext.newInstance(request, response) : new CicadaContext(request, response);
+            ParamMap paramMap = recycle ? ParamMap.newInstance() : new ParamMap();
+            paramMap.put("id", "1");
+            response.setHeaders("X-Trace", "1");
+            if (recycle) {
+                context.recycle();
+                paramMap.recycle();
+            }
+        }
+        long[] after = gc();
+        return new long[]{(threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - bytes) / requests,
+                after[0] - gc[0], after[1] - gc[1]};
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += bean.getCollectionCount();
+            time += bean.getCollectionTime();
+        }
+        return new long[]{count, time};
+    }
+
+    private static HttpRequest httpRequest() {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/cicada-example/demoAction?id=1");
+        request.headers().set("Host", "localhost")
+                .set("Accept", "*/*")
+                .set("User-Agent", "benchmark")
+                .set("Cookie", "session=1");
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.constant.CicadaConstant;
+import top.crossoverjie.cicada.server.context.Deadline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestTimeoutTest {
+
+    @Test
+    public void deadline() {
+        Deadline deadline = Deadline.after(1, TimeUnit.SECONDS);
+        long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+        Assert.assertTrue(remaining > 0 && remaining <= 1000);
+        Assert.assertFalse(deadline.isExpired());
+        Assert.assertTrue(Deadline.after(0, TimeUnit.MILLISECONDS).isExpired());
+    }
+
+    @Test
+    public void timerFirst() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        AtomicInteger timeouts = new AtomicInteger();
+        RequestTimeout timeout = new RequestTimeout(Deadline.after(20, TimeUnit.MILLISECONDS));
+        timeout.schedule(channel.eventLoop(), timeouts::incrementAndGet);
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        channel.runScheduledPendingTasks();
+        Assert.assertEquals(1, timeouts.get());
+        // 504已发出，路由的结果被丢弃
+        Assert.assertFalse(timeout.finish());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void routeFirst() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        AtomicInteger timeouts = new AtomicInteger();
+        RequestTimeout timeout = new RequestTimeout(Deadline.after(20, TimeUnit.MILLISECONDS));
+        timeout.schedule(channel.eventLoop(), timeouts::incrementAndGet);
+
+        Assert.assertTrue(timeout.finish());
+        TimeUnit.MILLISECONDS.sleep(50);
+        channel.runScheduledPendingTasks();
+        Assert.assertEquals(0, timeouts.get());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void slowRoute() throws Exception {
+        TestAction.load();
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpDispatcher());
+        // 编码后的path匹配到同一个路由，同样有截止时间
+        channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+                TestAction.ROOT_PATH + "/test%41ction/slow"));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        channel.runScheduledPendingTasks();
+        FullHttpResponse response = channel.readOutbound();
+        Assert.assertEquals(504, response.status().code());
+        Assert.assertEquals(CicadaConstant.ContentType.JSON, response.headers().get(HttpHeaderNames.CONTENT_TYPE));
+        Assert.assertTrue(response.content().toString(CharsetUtil.UTF_8).contains("Gateway Timeout"));
+        response.release();
+
+        // 路由结束后结果被丢弃，不会再写第二个响应
+        TimeUnit.MILLISECONDS.sleep(600);
+        channel.runPendingTasks();
+        Assert.assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,34 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResponseCacheDispatchTest {
+
+    @Test
+    public void interceptorHeadersNotCached() throws Exception {
+        TestAction.load();
+        EmbeddedChannel channel = new EmbeddedChannel(new HttpDispatcher());
+        String[] requests = new String[2];
+        for (int i = 0; i < requests.length; i++) {
+            channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+                    TestAction.ROOT_PATH + "/testAction/cached"));
+            FullHttpResponse response = channel.readOutbound();
+            Assert.assertEquals(200, response.status().code());
+            Assert.assertEquals("cached", response.content().toString(CharsetUtil.UTF_8));
+            Assert.assertEquals("cached", response.headers().get("X-Route"));
+            requests[i] = response.headers().get(TestInterceptor.HEADER);
+            response.release();
+        }
+        // the second answer comes from the cache but keeps the header of its own request
+        Assert.assertNotNull(requests[1]);
+        Assert.assertNotEquals(requests[0], requests[1]);
+        channel.finishAndReleaseAll();
+    }
+}
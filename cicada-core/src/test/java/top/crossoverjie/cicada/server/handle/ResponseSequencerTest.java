@@ -0,0 +1,96 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ResponseSequencerTest {
+
+    private EmbeddedChannel channel;
+
+    private ChannelHandlerContext ctx;
+
+    private ResponseSequencer sequencer;
+
+    @Before
+    public void setUp() {
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ctx = channel.pipeline().firstContext();
+        sequencer = ResponseSequencer.get(channel);
+    }
+
+    @After
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void continueWaitsForItsTurn() {
+        long first = sequencer.next();
+        long second = sequencer.next();
+        sequencer.writeInterim(ctx, second, response(HttpResponseStatus.CONTINUE));
+        Assert.assertNull(channel.readOutbound());
+
+        sequencer.write(ctx, first, response(HttpResponseStatus.OK));
+        FullHttpResponse ok = channel.readOutbound();
+        Assert.assertEquals(HttpResponseStatus.OK, ok.status());
+        ok.release();
+        FullHttpResponse interim = channel.readOutbound();
+        Assert.assertEquals(HttpResponseStatus.CONTINUE, interim.status());
+        interim.release();
+
+        sequencer.write(ctx, second, response(HttpResponseStatus.CREATED));
+        FullHttpResponse created = channel.readOutbound();
+        Assert.assertEquals(HttpResponseStatus.CREATED, created.status());
+        created.release();
+    }
+
+    @Test
+    public void closeReleasesPending() throws Exception {
+        long first = sequencer.next();
+        long second = sequencer.next();
+        long third = sequencer.next();
+        FullHttpResponse pending = response(HttpResponseStatus.OK);
+        ClosingInput input = new ClosingInput();
+        sequencer.write(ctx, second, new Object[]{new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK), input});
+        sequencer.write(ctx, third, pending);
+
+        sequencer.close();
+        Assert.assertEquals(0, pending.refCnt());
+        Assert.assertTrue(input.closed);
+
+        // a worker finishing after the connection is gone
+        FullHttpResponse late = response(HttpResponseStatus.OK);
+        sequencer.write(ctx, first, late);
+        Assert.assertEquals(0, late.refCnt());
+        Assert.assertNull(channel.readOutbound());
+    }
+
+    private static FullHttpResponse response(HttpResponseStatus status) {
+        return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status, Unpooled.copiedBuffer("cicada", StandardCharsets.UTF_8));
+    }
+
+    private static final class ClosingInput extends HttpChunkedInput {
+        private boolean closed;
+
+        private ClosingInput() {
+            super(new ChunkedStream(new ByteArrayInputStream(new byte[8])));
+        }
+
+        @Override
+        public void close() throws Exception {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package top.crossoverjie.cicada.server.handle;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.config.AppConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Queue;
+
+public class StaticFileHandlerTest {
+
+    private Path directory;
+
+    private StaticFileHandler handler;
+
+    private EmbeddedChannel channel;
+
+    private long sequence;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("cicada-static");
+        Files.write(directory.resolve("index.html"), "<h1>cicada</h1>".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("large.bin"), new byte[256 * 1024]);
+
+        AppConfig appConfig = AppConfig.getInstance();
+        appConfig.setRootPath("/cicada-example");
+        appConfig.setStaticDir(directory.toString());
+        // loads the small files on the calling thread
+        handler = new StaticFileHandler(appConfig, Runnable::run);
+        channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AppConfig.getInstance().setStaticDir(null);
+        AppConfig.getInstance().setCompression(false);
+        channel.finishAndReleaseAll();
+        Files.delete(directory.resolve("index.html"));
+        Files.delete(directory.resolve("large.bin"));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void accept() {
+        Assert.assertTrue(handler.accept(get("/cicada-example/static/index.html")));
+        Assert.assertFalse(handler.accept(get("/cicada-example/routeAction/getUser")));
+        Assert.assertFalse(handler.accept(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/cicada-example/static/index.html")));
+    }
+
+    @Test
+    public void smallFileFromCache() {
+        for (int i = 0; i < 2; i++) {
+            HttpResponse response = handle(get("/cicada-example/static/index.html"));
+            Assert.assertEquals(HttpResponseStatus.OK, response.status());
+            Assert.assertEquals("text/html; charset=UTF-8", response.headers().get(HttpHeaderNames.CONTENT_TYPE));
+            LastHttpContent content = channel.readOutbound();
+            Assert.assertEquals("<h1>cicada</h1>", content.content().toString(StandardCharsets.UTF_8));
+            content.release();
+        }
+    }
+
+    @Test
+    public void smallFileStreamedWhileLoading() {
+        Queue<Runnable> loads = new ArrayDeque<>();
+        handler = new StaticFileHandler(AppConfig.getInstance(), loads::add);
+
+        handle(get("/cicada-example/static/index.html"));
+        Object body = channel.readOutbound();
+        Assert.assertTrue(body instanceof FileRegion);
+        ReferenceCountUtil.release(body);
+        ReferenceCountUtil.release(channel.readOutbound());
+        Assert.assertEquals(1, loads.size());
+
+        // a second miss does not start another load
+        handle(get("/cicada-example/static/index.html"));
+        ReferenceCountUtil.release(channel.readOutbound());
+        ReferenceCountUtil.release(channel.readOutbound());
+        Assert.assertEquals(1, loads.size());
+
+        loads.poll().run();
+        handle(get("/cicada-example/static/index.html"));
+        LastHttpContent content = channel.readOutbound();
+        Assert.assertEquals("<h1>cicada</h1>", content.content().toString(StandardCharsets.UTF_8));
+        content.release();
+    }
+
+    @Test
+    public void largeFileIsZeroCopy() {
+        HttpResponse response = handle(get("/cicada-example/static/large.bin"));
+        Assert.assertEquals("262144", response.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        Object body = channel.readOutbound();
+        Assert.assertTrue(body instanceof FileRegion);
+        Assert.assertEquals(256 * 1024, ((FileRegion) body).count());
+        ReferenceCountUtil.release(body);
+        Assert.assertSame(LastHttpContent.EMPTY_LAST_CONTENT, channel.readOutbound());
+    }
+
+    @Test
+    public void gzipVariantIsCached() throws Exception {
+        StringBuilder css = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            css.append(".cicada-").append(i).append(" { color: red; }\n");
+        }
+        Files.write(directory.resolve("site.css"), css.toString().getBytes(StandardCharsets.UTF_8));
+        AppConfig.getInstance().setCompression(true);
+        handler = new StaticFileHandler(AppConfig.getInstance(), Runnable::run);
+        try {
+            for (int i = 0; i < 2; i++) {
+                HttpRequest request = get("/cicada-example/static/site.css");
+                request.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+                HttpResponse response = handle(request);
+                Assert.assertEquals("gzip", response.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+                LastHttpContent content = channel.readOutbound();
+                Assert.assertTrue(content.content().readableBytes() < css.length());
+                Assert.assertEquals(response.headers().getInt(HttpHeaderNames.CONTENT_LENGTH).intValue(), content.content().readableBytes());
+                content.release();
+            }
+
+            HttpResponse identity = handle(get("/cicada-example/static/site.css"));
+            Assert.assertNull(identity.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+            Assert.assertEquals("accept-encoding", identity.headers().get(HttpHeaderNames.VARY));
+            ReferenceCountUtil.release(channel.readOutbound());
+        } finally {
+            Files.delete(directory.resolve("site.css"));
+        }
+    }
+
+    @Test
+    public void range() {
+        HttpRequest request = get("/cicada-example/static/index.html");
+        request.headers().set(HttpHeaderNames.RANGE, "bytes=4-9");
+        HttpResponse response = handle(request);
+        Assert.assertEquals(HttpResponseStatus.PARTIAL_CONTENT, response.status());
+        Assert.assertEquals("bytes 4-9/15", response.headers().get(HttpHeaderNames.CONTENT_RANGE));
+        LastHttpContent content = channel.readOutbound();
+        Assert.assertEquals("cicada", content.content().toString(StandardCharsets.UTF_8));
+        content.release();
+
+        request.headers().set(HttpHeaderNames.RANGE, "bytes=100-");
+        Assert.assertEquals(HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE, handle(request).status());
+    }
+
+    @Test
+    public void parseRange() {
+        Assert.assertArrayEquals(new long[]{0, 99}, StaticFileHandler.parseRange("bytes=0-", 100));
+        Assert.assertArrayEquals(new long[]{90, 99}, StaticFileHandler.parseRange("bytes=-10", 100));
+        Assert.assertArrayEquals(new long[]{10, 99}, StaticFileHandler.parseRange("bytes=10-500", 100));
+        Assert.assertNull(StaticFileHandler.parseRange("bytes=0-1,5-6", 100));
+        Assert.assertNull(StaticFileHandler.parseRange("items=0-1", 100));
+        Assert.assertEquals(0, StaticFileHandler.parseRange("bytes=100-200", 100).length);
+    }
+
+    @Test
+    public void notModified() {
+        HttpRequest request = get("/cicada-example/static/index.html");
+        request.headers().set(HttpHeaderNames.IF_MODIFIED_SINCE, DateFormatter.format(new Date(System.currentTimeMillis() + 60_000)));
+        Assert.assertEquals(HttpResponseStatus.NOT_MODIFIED, handle(request).status());
+    }
+
+    @Test
+    public void outsideDirectory() {
+        Assert.assertEquals(HttpResponseStatus.NOT_FOUND, handle(get("/cicada-example/static/../../etc/passwd")).status());
+        Assert.assertEquals(HttpResponseStatus.NOT_FOUND, handle(get("/cicada-example/static/%2e%2e/secret")).status());
+        Assert.assertEquals(HttpResponseStatus.NOT_FOUND, handle(get("/cicada-example/static/missing.js")).status());
+    }
+
+    @Test
+    public void symlinkedDirectoryOutside() throws Exception {
+        Path outside = Files.createTempDirectory("cicada-secret");
+        Files.write(outside.resolve("secret.txt"), "secret".getBytes(StandardCharsets.UTF_8));
+        Path link = directory.resolve("linked");
+        try {
+            Files.createSymbolicLink(link, outside);
+            Assert.assertEquals(HttpResponseStatus.NOT_FOUND, handle(get("/cicada-example/static/linked/secret.txt")).status());
+        } finally {
+            Files.deleteIfExists(link);
+            Files.delete(outside.resolve("secret.txt"));
+            Files.delete(outside);
+        }
+    }
+
+    private HttpResponse handle(HttpRequest request) {
+        ChannelHandlerContext ctx = channel.pipeline().firstContext();
+        ResponseSequencer.get(channel).next();
+        handler.handle(ctx, request, sequence++);
+        return channel.readOutbound();
+    }
+
+    private static HttpRequest get(String uri) {
+        return new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    }
+}
@@ -0,0 +1,64 @@
+package top.crossoverjie.cicada.server.handle;
+
+import top.crossoverjie.cicada.server.annotation.Cacheable;
+import top.crossoverjie.cicada.server.annotation.CicadaAction;
+import top.crossoverjie.cicada.server.annotation.CicadaRoute;
+import top.crossoverjie.cicada.server.bean.CicadaBeanManager;
+import top.crossoverjie.cicada.server.config.AppConfig;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.route.RouterScanner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the dispatcher tests run against, served under /cicada-test/testAction
+ */
+@CicadaAction("testAction")
+public class TestAction {
+
+    public static final String ROOT_PATH = "/cicada-test";
+
+    private static boolean loaded;
+
+    /**
+     * compile the routes of this package once, like CicadaSetting does at startup.
+     * The root path is set every time, other tests share the AppConfig
+     */
+    public static synchronized void load() throws Exception {
+        AppConfig appConfig = AppConfig.getInstance();
+        appConfig.setRootPath(ROOT_PATH);
+        if (loaded) {
+            return;
+        }
+        appConfig.setRootPackageName(TestAction.class);
+        CicadaBeanManager.getInstance().initBean(appConfig.getRootPackageName());
+        RouterScanner.getInstance().loadRoutes();
+        loaded = true;
+    }
+
+    @CicadaRoute("echo")
+    public String echo() {
+        return "echo " + CicadaContext.getRequest().getParameter("id");
+    }
+
+    @Cacheable
+    @CicadaRoute("cached")
+    public String cached() {
+        CicadaContext.getResponse().getHeaders().put("X-Route", "cached");
+        return "cached";
+    }
+
+    @CicadaRoute(value = "sleep", mode = ExecutionMode.WORKER)
+    public String sleep() throws InterruptedException {
+        String millis = CicadaContext.getRequest().getParameter("ms");
+        TimeUnit.MILLISECONDS.sleep(Long.parseLong(millis));
+        return "slept " + millis;
+    }
+
+    @CicadaRoute(value = "slow", mode = ExecutionMode.WORKER, timeout = 50)
+    public String slow() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(500);
+        return "late";
+    }
+}
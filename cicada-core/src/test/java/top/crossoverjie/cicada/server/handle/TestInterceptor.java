@@ -0,0 +1,25 @@
+package top.crossoverjie.cicada.server.handle;
+
+import top.crossoverjie.cicada.server.action.param.Param;
+import top.crossoverjie.cicada.server.annotation.Interceptor;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.intercept.CicadaInterceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tags every request to /testAction/cached with its own number
+ */
+@Interceptor(include = "/testAction/cached")
+public class TestInterceptor extends CicadaInterceptor {
+
+    public static final String HEADER = "X-Request";
+
+    private static final AtomicInteger REQUESTS = new AtomicInteger();
+
+    @Override
+    protected boolean before(CicadaContext context, Param param) {
+        CicadaContext.getResponse().getHeaders().put(HEADER, String.valueOf(REQUESTS.incrementAndGet()));
+        return true;
+    }
+}
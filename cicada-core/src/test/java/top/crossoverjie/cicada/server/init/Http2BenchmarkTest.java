@@ -0,0 +1,236 @@
+package top.crossoverjie.cicada.server.init;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.*;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.config.AppConfig;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * p99 latency of the same concurrency over HTTP/1.1 keep-alive (one connection per caller)
+ * and over a single h2c connection, on the pipeline built by CicadaInitializer.
+ */
+public class Http2BenchmarkTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(Http2BenchmarkTest.class);
+
+    private static final int CONCURRENCY = 32;
+
+    private static final int REQUESTS = 20000;
+
+    private static final String URI = "/cicada-example/bench";
+
+    private EventLoopGroup group;
+
+    private int port;
+
+    @Before
+    public void start() throws Exception {
+        AppConfig.getInstance().setHttp2(true);
+        group = new NioEventLoopGroup(4);
+        Channel channel = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new CicadaInitializer(new EchoHandler()))
+                .bind(0).sync().channel();
+        port = ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @After
+    public void stop() {
+        AppConfig.getInstance().setHttp2(false);
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void upgrade() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setSoTimeout(5000);
+            String request = "GET " + URI + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Connection: Upgrade, HTTP2-Settings\r\nUpgrade: h2c\r\nHTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n\r\n";
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Assert.assertEquals("HTTP/1.1 101 Switching Protocols", reader.readLine());
+        }
+    }
+
+    @Test
+    public void bothProtocols() throws Exception {
+        // every request is answered with 200, the helpers assert it
+        http1(CONCURRENCY * 2);
+        http2(CONCURRENCY * 2);
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Benchmark.assumeEnabled();
+        // warm up
+        http1(REQUESTS / 4);
+        http2(REQUESTS / 4);
+
+        long[] http1 = http1(REQUESTS);
+        long[] http2 = http2(REQUESTS);
+        LOGGER.info("concurrency=[{}] requests=[{}] http/1.1 connections=[{}] p99=[{}]us, h2c connections=[1] p99=[{}]us",
+                CONCURRENCY, REQUESTS, CONCURRENCY, p99(http1), p99(http2));
+    }
+
+    /**
+     * one keep-alive connection per caller, HTTP/1.1 can not multiplex
+     */
+    private long[] http1(int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger ok = new AtomicInteger();
+        byte[] request = ("GET " + URI + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        Thread[] callers = new Thread[CONCURRENCY];
+        for (int t = 0; t < CONCURRENCY; t++) {
+            callers[t] = new Thread(() -> {
+                try (Socket socket = new Socket("127.0.0.1", port)) {
+                    socket.setTcpNoDelay(true);
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long start = System.nanoTime();
+                        socket.getOutputStream().write(request);
+                        if (readResponse(reader)) {
+                            ok.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            callers[t].start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        Assert.assertEquals(requests, ok.get());
+        return latencies;
+    }
+
+    /**
+     * the same number of requests in flight as streams of one prior knowledge connection
+     */
+    private long[] http2(int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger ok = new AtomicInteger();
+        EventLoopGroup client = new NioEventLoopGroup(1);
+        try {
+            Channel channel = new Bootstrap()
+                    .group(client)
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(Http2FrameCodecBuilder.forClient().build(),
+                                    new Http2MultiplexHandler(new ChannelInboundHandlerAdapter()));
+                        }
+                    })
+                    .connect("127.0.0.1", port).sync().channel();
+
+            Runnable[] send = new Runnable[1];
+            send[0] = () -> {
+                int i = next.getAndIncrement();
+                if (i >= requests) {
+                    return;
+                }
+                long start = System.nanoTime();
+                new Http2StreamChannelBootstrap(channel).handler(new SimpleChannelInboundHandler<Http2StreamFrame>() {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, Http2StreamFrame frame) {
+                        if (frame instanceof Http2HeadersFrame && "200".contentEquals(((Http2HeadersFrame) frame).headers().status())) {
+                            ok.incrementAndGet();
+                        }
+                        boolean end = frame instanceof Http2HeadersFrame ? ((Http2HeadersFrame) frame).isEndStream()
+                                : frame instanceof Http2DataFrame && ((Http2DataFrame) frame).isEndStream();
+                        if (end) {
+                            latencies[i] = System.nanoTime() - start;
+                            done.countDown();
+                            send[0].run();
+                        }
+                    }
+                }).open().addListener(future -> {
+                    Http2Headers headers = new DefaultHttp2Headers().method("GET").path(URI).scheme("http").authority("localhost");
+                    ((Http2StreamChannel) future.getNow()).writeAndFlush(new DefaultHttp2HeadersFrame(headers, true));
+                });
+            };
+            for (int t = 0; t < CONCURRENCY; t++) {
+                send[0].run();
+            }
+            Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+            Assert.assertEquals(requests, ok.get());
+            channel.close().sync();
+        } finally {
+            client.shutdownGracefully();
+        }
+        return latencies;
+    }
+
+    private static long p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (sorted.length * 0.99) - 1] / 1000;
+    }
+
+    /**
+     * @return true for a 200
+     */
+    private static boolean readResponse(BufferedReader reader) throws Exception {
+        boolean ok = "HTTP/1.1 200 OK".equals(reader.readLine());
+        int length = 0;
+        String line;
+        while (!(line = reader.readLine()).isEmpty()) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            reader.read();
+        }
+        return ok;
+    }
+
+    /**
+     * stands in for HttpDispatcher, sees the same HttpObjects on both protocols
+     */
+    @ChannelHandler.Sharable
+    private static final class EchoHandler extends SimpleChannelInboundHandler<HttpObject> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+            if (!(msg instanceof HttpRequest)) {
+                return;
+            }
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                    Unpooled.copiedBuffer(((HttpRequest) msg).uri(), StandardCharsets.US_ASCII));
+            response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+            ctx.writeAndFlush(response);
+        }
+    }
+}
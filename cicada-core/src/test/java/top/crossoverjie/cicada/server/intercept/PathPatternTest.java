@@ -0,0 +1,22 @@
+package top.crossoverjie.cicada.server.intercept;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PathPatternTest {
+
+    @Test
+    public void matches() {
+        Assert.assertTrue(new PathPattern("/routeAction/**").matches("/routeAction/user/{id}"));
+        Assert.assertTrue(new PathPattern("/routeAction/**").matches("/routeAction"));
+        Assert.assertFalse(new PathPattern("/routeAction/**").matches("/textAction/hello"));
+
+        Assert.assertTrue(new PathPattern("/*/hello").matches("/textAction/hello"));
+        Assert.assertFalse(new PathPattern("/*/hello").matches("/textAction/v1/hello"));
+        Assert.assertTrue(new PathPattern("/**/hello").matches("/textAction/v1/hello"));
+
+        Assert.assertTrue(new PathPattern("/routeAction/user/*").matches("/routeAction/user/{id}"));
+        Assert.assertTrue(new PathPattern("routeAction//user/").matches("/routeAction/user"));
+        Assert.assertTrue(new PathPattern("/**").matches("/"));
+    }
+}
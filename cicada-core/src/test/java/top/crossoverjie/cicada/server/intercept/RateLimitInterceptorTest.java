@@ -0,0 +1,60 @@
+package top.crossoverjie.cicada.server.intercept;
+
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.action.req.CicadaHttpRequest;
+import top.crossoverjie.cicada.server.action.res.CicadaHttpResponse;
+import top.crossoverjie.cicada.server.annotation.RateLimit;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.enums.RateLimitKey;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+public class RateLimitInterceptorTest {
+
+    @RateLimit(permitsPerSecond = 1, burst = 1, key = RateLimitKey.HEADER, name = "X-Api-Key")
+    public void limited() {
+    }
+
+    @After
+    public void tearDown() {
+        CicadaContext.removeContext();
+    }
+
+    @Test
+    public void missingKeyHasItsOwnBucket() throws Exception {
+        RateLimit rateLimit = RateLimitInterceptorTest.class.getMethod("limited").getAnnotation(RateLimit.class);
+        // room for one key, later keys go to the overflow bucket
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimit, 1);
+
+        Assert.assertTrue(before(interceptor, "a"));
+        Assert.assertTrue(before(interceptor, null));
+        Assert.assertFalse(before(interceptor, null));
+        // clients without the header did not use up the overflow bucket
+        Assert.assertTrue(before(interceptor, "b"));
+        Assert.assertFalse(before(interceptor, "c"));
+    }
+
+    /**
+     * @return false when the request is rejected with 429
+     */
+    private static boolean before(RateLimitInterceptor interceptor, String apiKey) throws Exception {
+        HttpRequest httpRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/cicada-test/limited");
+        if (apiKey != null) {
+            httpRequest.headers().set("X-Api-Key", apiKey);
+        }
+        CicadaContext context = new CicadaContext(CicadaHttpRequest.init(httpRequest), CicadaHttpResponse.init());
+        CicadaContext.setContext(context);
+        try {
+            return interceptor.before(context, null);
+        } catch (CicadaException e) {
+            Assert.assertEquals(StatusEnum.TOO_MANY_REQUESTS, e.getStatus());
+            return false;
+        }
+    }
+}
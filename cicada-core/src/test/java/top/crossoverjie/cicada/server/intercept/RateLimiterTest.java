@@ -0,0 +1,124 @@
+package top.crossoverjie.cicada.server.intercept;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class RateLimiterTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(RateLimiterTest.class);
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstThenRate() {
+        RateLimiter limiter = new RateLimiter(10, 3, 100);
+        long now = System.nanoTime();
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        long wait = limiter.tryAcquire("a", now);
+        Assert.assertEquals(SECOND / 10, wait);
+        // other keys have their own bucket
+        Assert.assertEquals(0, limiter.tryAcquire("b", now));
+        // one token every 100ms
+        Assert.assertEquals(0, limiter.tryAcquire("a", now + wait));
+        Assert.assertTrue(limiter.tryAcquire("a", now + wait) > 0);
+    }
+
+    @Test
+    public void boundedKeys() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2);
+        long now = System.nanoTime();
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        Assert.assertEquals(0, limiter.tryAcquire("b", now));
+        // the map is full of active clients, new keys share the overflow bucket
+        Assert.assertEquals(0, limiter.tryAcquire("c", now));
+        Assert.assertTrue(limiter.tryAcquire("d", now) > 0);
+        Assert.assertEquals(2, limiter.size());
+
+        // a and b are full again after a second and get evicted for new keys
+        long later = now + 2 * SECOND;
+        Assert.assertEquals(0, limiter.tryAcquire("e", later));
+        Assert.assertEquals(1, limiter.size());
+    }
+
+    @Test
+    public void sweepWhenBucketIsFullAgain() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2);
+        long now = System.nanoTime();
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        Assert.assertEquals(0, limiter.tryAcquire("b", now + SECOND / 2));
+        // the map is full, c takes the overflow token
+        Assert.assertEquals(0, limiter.tryAcquire("c", now + SECOND * 6 / 10));
+        // a is full again, d gets its bucket instead of the empty overflow bucket
+        Assert.assertEquals(0, limiter.tryAcquire("d", now + SECOND * 105 / 100));
+        Assert.assertEquals(2, limiter.size());
+    }
+
+    @Test
+    public void unkeyedIsNotOverflow() {
+        RateLimiter limiter = new RateLimiter(1, 1, 1);
+        long now = System.nanoTime();
+        Assert.assertEquals(0, limiter.tryAcquire("a", now));
+        Assert.assertEquals(0, limiter.tryAcquire(null, now));
+        Assert.assertTrue(limiter.tryAcquire(null, now) > 0);
+        Assert.assertEquals(0, limiter.tryAcquire("b", now));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Benchmark.assumeEnabled();
+        RateLimiter limiter = new RateLimiter(1_000_000, 1_000_000, 65536);
+        // the usual hand written limiter: refill by elapsed time under one lock
+        Map<String, long[]> locked = new HashMap<>();
+        Function<String, Boolean> synchronizedMap = key -> {
+            long now = System.nanoTime();
+            synchronized (locked) {
+                long[] bucket = locked.computeIfAbsent(key, k -> new long[]{1_000_000, now});
+                bucket[0] = Math.min(1_000_000, bucket[0] + (now - bucket[1]) / 1000);
+                bucket[1] = now;
+                return bucket[0]-- > 0;
+            }
+        };
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int loops = 1_000_000;
+        // warm up
+        run(threads, loops / 4, key -> limiter.tryAcquire(key) == 0);
+        run(threads, loops / 4, synchronizedMap);
+
+        long lockFree = run(threads, loops, key -> limiter.tryAcquire(key) == 0);
+        long synchronizedCost = run(threads, loops, synchronizedMap);
+        LOGGER.info("threads=[{}] acquires/thread=[{}] cas buckets=[{}]ms synchronized map=[{}]ms",
+                threads, loops, lockFree, synchronizedCost);
+    }
+
+    private long run(int threads, int loops, Function<String, Boolean> acquire) throws Exception {
+        String[] keys = new String[1024];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0.0." + i;
+        }
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < loops; i++) {
+                    acquire.apply(keys[(i + offset) & (keys.length - 1)]);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
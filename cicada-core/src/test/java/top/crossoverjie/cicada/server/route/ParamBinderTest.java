@@ -0,0 +1,176 @@
+package top.crossoverjie.cicada.server.route;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.action.req.CicadaHttpRequest;
+import top.crossoverjie.cicada.server.action.req.RequestBody;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.enums.StatusEnum;
+import top.crossoverjie.cicada.server.exception.CicadaException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ParamBinderTest {
+
+    public static class User {
+        private long id;
+        private String name;
+        private int age;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    public static class Action {
+        public void user(User user) {
+        }
+    }
+
+    private CicadaHttpRequest request;
+
+    @After
+    public void tearDown() {
+        CicadaContext.removeContext();
+        request.getBody().close();
+    }
+
+    @Test
+    public void malformedJson() throws Exception {
+        ParamBinder binder = binder("user", new String[0]);
+        request("{\"name\": \"cicada\", \"age\": ");
+        try {
+            binder.bind(Collections.emptyMap());
+            Assert.fail();
+        } catch (CicadaException e) {
+            Assert.assertEquals(StatusEnum.BAD_REQUEST, e.getStatus());
+            Assert.assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
+    @Test
+    public void json() throws Exception {
+        ParamBinder binder = binder("user", new String[0]);
+        request("{\"name\": \"cicada\", \"age\": 3}");
+        User user = (User) binder.bind(Collections.emptyMap())[0];
+        Assert.assertEquals("cicada", user.getName());
+        Assert.assertEquals(3, user.getAge());
+    }
+
+    @Test
+    public void unknownParametersIgnored() throws Exception {
+        ParamBinder binder = binder("user", new String[0]);
+        request(null);
+        User user = (User) binder.bind(parameters("name", "cicada", "nickname", "crossover"))[0];
+        Assert.assertEquals("cicada", user.getName());
+    }
+
+    @Test
+    public void blankAndMissingPrimitives() throws Exception {
+        ParamBinder binder = binder("user", new String[0]);
+        request(null);
+        User user = (User) binder.bind(parameters("age", ""))[0];
+        Assert.assertEquals(0, user.getAge());
+
+        // a missing parameter keeps the value of the body
+        request("{\"age\": 3}");
+        user = (User) binder.bind(parameters("name", "cicada"))[0];
+        Assert.assertEquals(3, user.getAge());
+        Assert.assertEquals("cicada", user.getName());
+    }
+
+    @Test
+    public void conversionFailure() throws Exception {
+        ParamBinder binder = binder("user", new String[0]);
+        request(null);
+        try {
+            binder.bind(parameters("age", "three"));
+            Assert.fail();
+        } catch (CicadaException e) {
+            Assert.assertEquals(StatusEnum.BAD_REQUEST, e.getStatus());
+            Assert.assertTrue(e.getMessage().contains("age"));
+        }
+    }
+
+    @Test
+    public void pathVariables() throws Exception {
+        ParamBinder binder = binder("user", new String[]{"id"});
+        request(null);
+        request.setPathVariables(new String[]{"id"}, new String[]{"42"});
+        // the path wins over a query parameter of the same name
+        User user = (User) binder.bind(parameters("id", "7"))[0];
+        Assert.assertEquals(42L, user.getId());
+
+        request.setPathVariables(new String[]{"id"}, new String[]{"abc"});
+        try {
+            binder.bind(Collections.emptyMap());
+            Assert.fail();
+        } catch (CicadaException e) {
+            Assert.assertEquals(StatusEnum.BAD_REQUEST, e.getStatus());
+        }
+    }
+
+    private static Map<String, List<String>> parameters(String... pairs) {
+        Map<String, List<String>> parameters = new HashMap<>(pairs.length);
+        for (int i = 0; i < pairs.length; i += 2) {
+            parameters.put(pairs[i], Collections.singletonList(pairs[i + 1]));
+        }
+        return parameters;
+    }
+
+    private static ParamBinder binder(String name, String[] variableNames) throws Exception {
+        return ParamBinder.compile(new Route("/" + name, Action.class.getMethod(name, User.class), ExecutionMode.EVENT_LOOP, variableNames));
+    }
+
+    /**
+     * @param json body, null for a request without one
+     */
+    private void request(String json) throws Exception {
+        if (request != null) {
+            request.getBody().close();
+        }
+        HttpRequest httpRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/cicada-test/user");
+        httpRequest.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+        request = CicadaHttpRequest.init(httpRequest);
+        RequestBody body = RequestBody.empty();
+        if (json != null) {
+            body = new RequestBody(1024, 1024);
+            body.append(Unpooled.copiedBuffer(json, StandardCharsets.UTF_8));
+        }
+        request.setBody(body);
+        CicadaContext.setContext(new CicadaContext(request, null));
+    }
+}
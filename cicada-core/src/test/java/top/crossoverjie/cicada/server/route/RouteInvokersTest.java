@@ -0,0 +1,85 @@
+package top.crossoverjie.cicada.server.route;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+
+import java.lang.reflect.Method;
+
+public class RouteInvokersTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(RouteInvokersTest.class);
+
+    public static class Action {
+
+        private int count;
+
+        public String hello(String name) {
+            return "hello " + name;
+        }
+
+        public int sum(Integer a, Integer b) {
+            return a + b;
+        }
+
+        public void count() {
+            count++;
+        }
+
+        public void fail(String message) throws Exception {
+            throw new Exception(message);
+        }
+    }
+
+    @Test
+    public void invoke() throws Exception {
+        Action action = new Action();
+        Assert.assertEquals("hello cicada", RouteInvokers.compile(Action.class.getMethod("hello", String.class), action)
+                .invoke(new Object[]{"cicada"}));
+        Assert.assertEquals(3, RouteInvokers.compile(Action.class.getMethod("sum", Integer.class, Integer.class), action)
+                .invoke(new Object[]{1, 2}));
+
+        Assert.assertNull(RouteInvokers.compile(Action.class.getMethod("count"), action).invoke(null));
+        Assert.assertEquals(1, action.count);
+
+        try {
+            RouteInvokers.compile(Action.class.getMethod("fail", String.class), action).invoke(new Object[]{"boom"});
+            Assert.fail();
+        } catch (Exception e) {
+            // not wrapped by InvocationTargetException
+            Assert.assertEquals("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Benchmark.assumeEnabled();
+        Action action = new Action();
+        Method method = Action.class.getMethod("hello", String.class);
+        RouteInvoker invoker = RouteInvokers.compile(method, action);
+        Object[] args = new Object[]{"cicada"};
+        int loops = 5000000;
+        long blackHole = 0;
+
+        for (int i = 0; i < loops; i++) {
+            blackHole += method.invoke(action, args).hashCode();
+            blackHole += invoker.invoke(args).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            blackHole += method.invoke(action, args).hashCode();
+        }
+        long reflectCost = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            blackHole += invoker.invoke(args).hashCode();
+        }
+        long invokerCost = System.nanoTime() - start;
+
+        LOGGER.info("reflection=[{}]ns/op invoker=[{}]ns/op ({})", reflectCost / loops, invokerCost / loops, blackHole);
+    }
+}
@@ -0,0 +1,101 @@
+package top.crossoverjie.cicada.server.route;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RouteTreeTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(RouteTreeTest.class);
+
+    private static Route route(String path) throws Exception {
+        Method method = Object.class.getMethod("toString");
+        return new Route(path, method, ExecutionMode.DEFAULT, RouteTree.variableNames(path));
+    }
+
+    @Test
+    public void match() throws Exception {
+        RouteTree tree = new RouteTree();
+        Route getUser = route("/cicada-example/routeAction/getUser");
+        Route user = route("/cicada-example/user/{id}");
+        Route userOrder = route("/cicada-example/user/{id}/order/{orderId}");
+        Route userMe = route("/cicada-example/user/me");
+        Route files = route("/cicada-example/files/*");
+        tree.add(getUser);
+        tree.add(user);
+        tree.add(userOrder);
+        tree.add(userMe);
+        tree.add(files);
+
+        int[] captures = new int[tree.captureSize()];
+        Assert.assertSame(getUser, tree.match("/cicada-example/routeAction/getUser", captures));
+        Assert.assertSame(getUser, tree.match("/cicada-example/routeAction/getUser/", captures));
+        Assert.assertSame(userMe, tree.match("/cicada-example/user/me", captures));
+
+        String path = "/cicada-example/user/42/order/7";
+        Assert.assertSame(userOrder, tree.match(path, captures));
+        Assert.assertEquals("42", path.substring(captures[0], captures[1]));
+        Assert.assertEquals("7", path.substring(captures[2], captures[3]));
+
+        path = "/cicada-example/files/css/app.css";
+        Assert.assertSame(files, tree.match(path, captures));
+        Assert.assertEquals("css/app.css", path.substring(captures[0], captures[1]));
+
+        Assert.assertNull(tree.match("/cicada-example/routeAction/getUser2", captures));
+        Assert.assertNull(tree.match("/cicada-example/user/42/order", captures));
+        Assert.assertArrayEquals(new String[]{"id", "orderId"}, userOrder.getVariableNames());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void duplicate() throws Exception {
+        RouteTree tree = new RouteTree();
+        tree.add(route("/cicada-example/user/{id}"));
+        tree.add(route("/cicada-example/user/{name}"));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        Benchmark.assumeEnabled();
+        for (int size : new int[]{10, 1000, 10000}) {
+            RouteTree tree = new RouteTree();
+            Map<String, Route> map = new HashMap<>(size * 2);
+            String[] paths = new String[size];
+            for (int i = 0; i < size; i++) {
+                paths[i] = "/cicada-example/action" + (i % 100) + "/route" + i;
+                Route route = route(paths[i]);
+                tree.add(route);
+                map.put(paths[i], route);
+            }
+
+            int[] captures = new int[tree.captureSize()];
+            int loops = 2000000;
+            long blackHole = 0;
+            // warm up
+            for (int i = 0; i < loops; i++) {
+                blackHole += map.get(paths[i % size]).hashCode();
+                blackHole += tree.match(paths[i % size], captures).hashCode();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                blackHole += map.get(paths[i % size]).hashCode();
+            }
+            long mapCost = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                blackHole += tree.match(paths[i % size], captures).hashCode();
+            }
+            long treeCost = System.nanoTime() - start;
+
+            LOGGER.info("routes=[{}] hashmap=[{}]ns/op tree=[{}]ns/op ({})", size, mapCost / loops, treeCost / loops, blackHole);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package top.crossoverjie.cicada.server.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.config.AppConfig;
+import top.crossoverjie.cicada.server.enums.Priority;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+    @Test
+    public void priorityOrder() throws Exception {
+        InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor("test.priority", 1, 4, RejectPolicy.ABORT);
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        try {
+            pool.execute(() -> await(blocked));
+            pool.execute(new PrioritizedTask(Priority.LOW, () -> order.add("report")));
+            pool.execute(new PrioritizedTask(Priority.NORMAL, () -> order.add("user-1")));
+            pool.execute(new PrioritizedTask(Priority.HIGH, () -> order.add("health")));
+            pool.execute(() -> order.add("user-2"));
+            try {
+                pool.execute(new PrioritizedTask(Priority.HIGH, () -> order.add("rejected")));
+                Assert.fail("queue is full");
+            } catch (RejectedExecutionException expected) {
+                Assert.assertEquals(1, pool.getRejectedCount());
+            }
+            blocked.countDown();
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        // 高优先级先执行，同优先级按到达顺序
+        Assert.assertEquals("[health, user-1, user-2, report]", order.toString());
+    }
+
+    @Test
+    public void isolation() throws Exception {
+        AppConfig.getInstance().setBulkheadThreads("test-reports", 1);
+        AppConfig.getInstance().setBulkheadQueueSize("test-reports", 1);
+        ExecutorManager executorManager = ExecutorManager.getInstance();
+        Executor reports = executorManager.bulkhead("test-reports");
+        Assert.assertSame(reports, executorManager.bulkhead("test-reports"));
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            // 报表路由占满自己的舱壁
+            reports.execute(() -> await(blocked));
+            reports.execute(() -> await(blocked));
+            try {
+                reports.execute(() -> await(blocked));
+                Assert.fail("bulkhead is full");
+            } catch (RejectedExecutionException expected) {
+            }
+
+            // 其他路由不受影响
+            CountDownLatch done = new CountDownLatch(1);
+            executorManager.worker().execute(done::countDown);
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            blocked.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package top.crossoverjie.cicada.server.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.metrics.CicadaMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void shedOverLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test.limit.shed", 2, 1, 10);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getShedCount());
+
+        limiter.release(System.nanoTime());
+        Assert.assertTrue(limiter.tryAcquire());
+
+        Assert.assertEquals(2, CicadaMetrics.getInstance().get("test.limit.shed.limit").intValue());
+        Assert.assertEquals(1L, CicadaMetrics.getInstance().get("test.limit.shed.shed"));
+    }
+
+    @Test
+    public void followLatency() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test.limit.latency", 20, 10, 200);
+        long now = System.nanoTime();
+
+        // 延迟稳定时限制逐步放开
+        for (int i = 0; i < 10; i++) {
+            now = window(limiter, now, FAST);
+        }
+        int grown = limiter.getLimit();
+        Assert.assertTrue("limit " + grown, grown > 20);
+
+        // 数据库变慢，延迟升高后限制收缩
+        for (int i = 0; i < 10; i++) {
+            now = window(limiter, now, SLOW);
+        }
+        int shrunk = limiter.getLimit();
+        Assert.assertTrue("limit " + shrunk + " grown " + grown, shrunk < grown);
+        Assert.assertTrue(limiter.getShedCount() > 0);
+        Assert.assertTrue(limiter.getShedPerSecond() > 0);
+
+        // 恢复后重新放开
+        for (int i = 0; i < 50; i++) {
+            now = window(limiter, now, FAST);
+        }
+        Assert.assertTrue(limiter.getLimit() > shrunk);
+    }
+
+    @Test
+    public void idleDoesNotGrow() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test.limit.idle", 100, 10, 1000);
+        long now = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            now += WINDOW;
+            // 只有少量并发，限制保持不变
+            for (int j = 0; j < 20; j++) {
+                Assert.assertTrue(limiter.tryAcquire());
+                limiter.release(now - FAST, now);
+            }
+        }
+        Assert.assertEquals(100, limiter.getLimit());
+    }
+
+    /**
+     * fill the limit, then complete all routes with the given latency one window later
+     */
+    private long window(ConcurrencyLimiter limiter, long now, long rtt) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        // 超出限制的请求被丢弃
+        limiter.tryAcquire();
+        now += WINDOW;
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(now - rtt, now);
+        }
+        return now;
+    }
+}
@@ -0,0 +1,84 @@
+package top.crossoverjie.cicada.server.thread;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ContextPropagationTest {
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        CicadaContext.removeContext();
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void executor() throws Exception {
+        CicadaContext context = new CicadaContext(null, null);
+        CicadaContext.setContext(context);
+        ExecutorService wrapped = ContextPropagation.wrap(pool);
+
+        Assert.assertSame(context, wrapped.submit(CicadaContext::getContext).get(5, TimeUnit.SECONDS));
+        // the task may outlive the request, the dispatcher must not recycle the context
+        Assert.assertTrue(context.isCaptured());
+        // the pool thread does not keep the context of the task
+        CicadaContext.removeContext();
+        Assert.assertNull(pool.submit(CicadaContext::getContext).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void restorePrevious() {
+        CicadaContext outer = new CicadaContext(null, null);
+        CicadaContext inner = new CicadaContext(null, null);
+        CicadaContext.setContext(inner);
+        Runnable task = ContextPropagation.wrap(() -> Assert.assertSame(inner, CicadaContext.getContext()));
+
+        CicadaContext.setContext(outer);
+        task.run();
+        Assert.assertSame(outer, CicadaContext.getContext());
+    }
+
+    @Test
+    public void completionStage() throws Exception {
+        CicadaContext context = new CicadaContext(null, null);
+        CicadaContext.setContext(context);
+        CompletableFuture<String> source = new CompletableFuture<>();
+        AtomicReference<CicadaContext> seen = new AtomicReference<>();
+        CompletableFuture<String> future = ContextPropagation.wrap(source);
+        CompletableFuture<Void> after = future.thenRun(() -> seen.set(CicadaContext.getContext()));
+        CicadaContext.removeContext();
+
+        // completed by a thread without context, e.g. a client library callback
+        pool.execute(() -> source.complete("done"));
+        Assert.assertEquals("done", future.get(5, TimeUnit.SECONDS));
+        // dependents run after get() may already return
+        after.get(5, TimeUnit.SECONDS);
+        Assert.assertSame(context, seen.get());
+    }
+
+    @Test
+    public void dependentChain() throws Exception {
+        CicadaContext context = new CicadaContext(null, null);
+        CicadaContext.setContext(context);
+        CompletableFuture<String> future = ContextPropagation.wrap(CompletableFuture.completedFuture("done"));
+        CicadaContext.removeContext();
+
+        // registered on a thread without context, on the common pool and further down the chain
+        CompletableFuture<CicadaContext> chain = future
+                .thenApplyAsync(value -> CicadaContext.getContext())
+                .thenCompose(seen -> CompletableFuture.completedFuture(seen))
+                .whenComplete((seen, error) -> Assert.assertSame(context, CicadaContext.getContext()));
+        Assert.assertSame(context, chain.get(5, TimeUnit.SECONDS));
+        Assert.assertSame(context, future.thenApply(value -> CicadaContext.getContext()).join());
+        Assert.assertNull(CicadaContext.getContext());
+    }
+}
@@ -0,0 +1,75 @@
+package top.crossoverjie.cicada.server.thread;
+
+import io.netty.channel.DefaultEventLoopGroup;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.enums.RejectPolicy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of blocking actions (10ms, like a JDBC round trip) on each execution mode.
+ */
+public class ExecutionModeBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(ExecutionModeBenchmarkTest.class);
+
+    private static final int REQUESTS = 2000;
+
+    private static final long BLOCKING_MILLIS = 10;
+
+    @Test
+    public void everyModeRunsAllTasks() throws Exception {
+        modes(50);
+    }
+
+    @Test
+    public void throughput() throws Exception {
+        Benchmark.assumeEnabled();
+        modes(REQUESTS);
+    }
+
+    private void modes(int requests) throws Exception {
+        DefaultEventLoopGroup eventLoop = new DefaultEventLoopGroup(Runtime.getRuntime().availableProcessors() * 2);
+        InstrumentedThreadPoolExecutor worker = new InstrumentedThreadPoolExecutor("benchmark.worker", 64, requests, RejectPolicy.ABORT);
+        VirtualThreadExecutor virtual = VirtualThreadExecutor.create("benchmark.virtual");
+        try {
+            run("event_loop", eventLoop, requests);
+            run("worker(64)", worker, requests);
+            if (virtual != null) {
+                run("virtual", virtual, requests);
+            } else {
+                LOGGER.info("virtual threads not supported, skip");
+            }
+        } finally {
+            eventLoop.shutdownGracefully();
+            worker.shutdown();
+            if (virtual != null) {
+                virtual.shutdown();
+            }
+        }
+    }
+
+    private void run(String mode, Executor executor, int requests) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(BLOCKING_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(mode + " did not finish", latch.await(1, TimeUnit.MINUTES));
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOGGER.info("mode=[{}] requests=[{}] cost=[{}]ms throughput=[{}] req/s", mode, requests, cost, requests * 1000L / Math.max(1, cost));
+    }
+}
@@ -0,0 +1,24 @@
+package top.crossoverjie.cicada.server.thread;
+
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.enums.ExecutionMode;
+import top.crossoverjie.cicada.server.route.Route;
+
+public class ExecutorManagerTest {
+
+    @Test
+    public void isVirtual() throws Exception {
+        ExecutorManager executorManager = ExecutorManager.getInstance();
+        Route virtual = new Route("/virtual", Object.class.getMethod("toString"), ExecutionMode.VIRTUAL, new String[0]);
+        Route worker = new Route("/worker", Object.class.getMethod("toString"), ExecutionMode.WORKER, new String[0]);
+
+        // before JDK 21 VIRTUAL falls back to the worker pool, its routes can be recycled
+        boolean supported = executorManager.virtual() instanceof VirtualThreadExecutor;
+        Assert.assertEquals(supported, executorManager.isVirtual(virtual));
+        Assert.assertFalse(executorManager.isVirtual(worker));
+
+        virtual.setBulkhead("test-virtual");
+        Assert.assertFalse(executorManager.isVirtual(virtual));
+    }
+}
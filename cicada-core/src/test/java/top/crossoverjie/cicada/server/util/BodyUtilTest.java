@@ -0,0 +1,171 @@
+package top.crossoverjie.cicada.server.util;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import top.crossoverjie.cicada.base.log.LoggerBuilder;
+import top.crossoverjie.cicada.server.Benchmark;
+import top.crossoverjie.cicada.server.action.res.WorkRes;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bytes allocated per response body: String round trip vs pooled buffers,
+ * and JSON request bodies parsed from a String vs straight off the ByteBuf.
+ */
+public class BodyUtilTest {
+
+    private static final Logger LOGGER = LoggerBuilder.getLogger(BodyUtilTest.class);
+
+    private static final int LOOPS = 100000;
+
+    @Test
+    public void json() {
+        WorkRes<List<String>> workRes = workRes();
+        ByteBuf buf = BodyUtil.json(workRes);
+        try {
+            Assert.assertEquals(JSON.toJSONString(workRes), buf.toString(StandardCharsets.UTF_8));
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Test
+    public void allocation() {
+        WorkRes<List<String>> workRes = workRes();
+        String text = JSON.toJSONString(workRes);
+
+        measure("json string", () -> Unpooled.wrappedBuffer(JSON.toJSONString(workRes).getBytes(StandardCharsets.UTF_8)));
+        measure("json pooled", () -> BodyUtil.json(workRes));
+        measure("text string", () -> Unpooled.wrappedBuffer(text.getBytes(StandardCharsets.UTF_8)));
+        measure("text pooled", () -> BodyUtil.utf8(text));
+    }
+
+    private void measure(String name, Supplier<ByteBuf> body) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // warm up the JIT and the pool's thread cache
+        for (int i = 0; i < LOOPS; i++) {
+            body.get().release();
+        }
+
+        long start = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < LOOPS; i++) {
+            body.get().release();
+        }
+        long allocated = bean.getThreadAllocatedBytes(threadId) - start;
+
+        LOGGER.info("body=[{}] allocated=[{}] bytes/request", name, allocated / LOOPS);
+    }
+
+    private WorkRes<List<String>> workRes() {
+        List<String> data = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            data.add("cicada-" + i);
+        }
+        WorkRes<List<String>> workRes = new WorkRes<>();
+        workRes.setCode("9000");
+        workRes.setMessage("success");
+        workRes.setDataBody(data);
+        return workRes;
+    }
+
+    @Test
+    public void parseJson() throws Exception {
+        ObjectDeserializer deserializer = ParserConfig.getGlobalInstance().getDeserializer(Payload.class);
+        for (int size : new int[]{1024, 64 * 1024, 1024 * 1024}) {
+            ByteBuf body = PooledByteBufAllocator.DEFAULT.directBuffer();
+            body.writeCharSequence(JSON.toJSONString(payload(size)), StandardCharsets.UTF_8);
+            try {
+                Payload payload = BodyUtil.parseJson(new ByteBufInputStream(body.duplicate()), Payload.class, deserializer);
+                Assert.assertEquals(payload(size).items.size(), payload.items.size());
+            } finally {
+                body.release();
+            }
+        }
+    }
+
+    @Test
+    public void parseJsonBenchmark() throws Exception {
+        Benchmark.assumeEnabled();
+        ObjectDeserializer deserializer = ParserConfig.getGlobalInstance().getDeserializer(Payload.class);
+        for (int size : new int[]{1024, 64 * 1024, 1024 * 1024}) {
+
+            ByteBuf body = PooledByteBufAllocator.DEFAULT.directBuffer();
+            body.writeCharSequence(JSON.toJSONString(payload(size)), StandardCharsets.UTF_8);
+            try {
+                int loops = Math.max(50, 100 * 1024 * 1024 / body.readableBytes());
+                long[] string = benchmark(loops, () -> JSON.parseObject(body.toString(StandardCharsets.UTF_8), Payload.class));
+                long[] stream = benchmark(loops, () -> {
+                    try {
+                        return BodyUtil.parseJson(new ByteBufInputStream(body.duplicate()), Payload.class, deserializer);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                LOGGER.info("json body=[{}]bytes string=[{}]us/op [{}]bytes/op bytebuf=[{}]us/op [{}]bytes/op",
+                        body.readableBytes(), string[0] / 1000, string[1], stream[0] / 1000, stream[1]);
+            } finally {
+                body.release();
+            }
+        }
+    }
+
+    /**
+     * @return [ns/op, bytes allocated/op]
+     */
+    private long[] benchmark(int loops, Supplier<Payload> parse) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long blackHole = 0;
+        for (int i = 0; i < loops; i++) {
+            blackHole += parse.get().items.size();
+        }
+        long allocated = bean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            blackHole += parse.get().items.size();
+        }
+        long cost = System.nanoTime() - start;
+        allocated = bean.getThreadAllocatedBytes(threadId) - allocated;
+        Assert.assertTrue(blackHole > 0);
+        return new long[]{cost / loops, allocated / loops};
+    }
+
+    private Payload payload(int size) {
+        Payload payload = new Payload();
+        payload.items = new ArrayList<>();
+        int length = 2;
+        while (length < size) {
+            Item item = new Item();
+            item.id = payload.items.size();
+            item.name = "cicada-" + item.id;
+            item.score = item.id * 0.5;
+            payload.items.add(item);
+            length += 40 + String.valueOf(item.id).length() * 2;
+        }
+        return payload;
+    }
+
+    public static class Payload {
+        public List<Item> items;
+    }
+
+    public static class Item {
+        public int id;
+        public String name;
+        public double score;
+    }
+}
@@ -0,0 +1,23 @@
+package top.crossoverjie.cicada.server.util;
+
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PathUtilTest {
+
+    @Test
+    public void decoder() {
+        // 编码后的path和绝对形式的uri匹配到同一个路由
+        QueryStringDecoder encoded = PathUtil.decoder("/cicada-example/report%41ction/export?id=1");
+        Assert.assertEquals("/cicada-example/reportAction/export", encoded.path());
+        Assert.assertEquals("1", encoded.parameters().get("id").get(0));
+
+        QueryStringDecoder absolute = PathUtil.decoder("http://localhost:5688/cicada-example/reportAction/export?id=1");
+        Assert.assertEquals("/cicada-example/reportAction/export", absolute.path());
+        Assert.assertEquals("1", absolute.parameters().get("id").get(0));
+
+        Assert.assertEquals("/", PathUtil.decoder("http://localhost:5688").path());
+        Assert.assertEquals("1", PathUtil.decoder("http://localhost:5688?id=1").parameters().get("id").get(0));
+    }
+}
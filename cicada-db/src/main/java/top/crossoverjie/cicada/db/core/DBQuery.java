@@ -75,6 +75,7 @@ public final class DBQuery<T extends Model> extends SqlSessionFactory {
         Statement statement = null;
         try {
             statement = super.origin().getConnection().createStatement();
+            QueryDeadline.apply(statement);
             log.debug("execute sql>>>>>{}", sql);
             ResultSet resultSet = statement.executeQuery(sql);
             result = new ArrayList<>();
@@ -104,13 +104,16 @@ public class DBQueryV2<T extends Model> extends SqlSessionFactory {
         List<T> result = new ArrayList<>();
 
         try (Connection conn = super.origin().getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             Statement stmt = conn.createStatement()) {
 
+            // 在cicada请求中执行时，查询超时不超过请求剩余的时间
+            QueryDeadline.apply(stmt);
             log.debug("Execute SQL: {}", sql);
 
-            while (rs.next()) {
-                result.add(mapResultSetToEntity(rs));
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    result.add(mapResultSetToEntity(rs));
+                }
             }
 
         } catch (Exception e) {
@@ -181,10 +184,12 @@ public class DBQueryV2<T extends Model> extends SqlSessionFactory {
         }
 
         try (Connection conn = super.origin().getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(countQuery.toString())) {
+             Statement stmt = conn.createStatement()) {
 
-            return rs.next() ? rs.getLong(1) : 0;
+            QueryDeadline.apply(stmt);
+            try (ResultSet rs = stmt.executeQuery(countQuery.toString())) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
         } catch (Exception e) {
             log.error("Count query execution error", e);
             throw new RuntimeException("Failed to execute count query", e);
@@ -409,6 +414,7 @@ public class DBQueryV2<T extends Model> extends SqlSessionFactory {
         return executeInTransaction(connection -> {
             int totalInserted = 0;
             try (Statement stmt = connection.createStatement()) {
+                QueryDeadline.apply(stmt);
                 for (T entity : entities) {
                     String sql = buildInsertSQL(entity);
                     stmt.addBatch(sql);
@@ -0,0 +1,64 @@
+package top.crossoverjie.cicada.db.core;
+
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.context.Deadline;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Function: bound a statement by the deadline of the cicada request running it,
+ * so a stuck query can not hold the thread after the client got its 504.
+ * cicada-core is optional, without it or outside a request nothing is applied.
+ *
+ * @author crossoverJie
+ * @since JDK 1.8
+ */
+public final class QueryDeadline {
+
+    private static final boolean CICADA_PRESENT = present("top.crossoverjie.cicada.server.context.CicadaContext");
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * set the query timeout to the time left, rounded up to seconds as JDBC requires
+     * @param statement statement about to be executed
+     * @throws SQLTimeoutException when the deadline has already passed
+     */
+    public static void apply(Statement statement) throws SQLException {
+        if (!CICADA_PRESENT) {
+            return;
+        }
+        long remaining = Current.remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return;
+        }
+        if (remaining <= 0) {
+            throw new SQLTimeoutException("Request deadline exceeded before the query");
+        }
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000));
+    }
+
+    private static boolean present(String className) {
+        try {
+            Class.forName(className, false, QueryDeadline.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * only loaded when cicada-core is on the classpath
+     */
+    private static final class Current {
+        private static long remainingMillis() {
+            CicadaContext context = CicadaContext.getContext();
+            Deadline deadline = context == null ? null : context.getDeadline();
+            return deadline == null ? Long.MAX_VALUE : deadline.remaining(TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.healthmarketscience.sqlbuilder.dbspec.basic.DbTable;
 import lombok.extern.slf4j.Slf4j;
 import top.crossoverjie.cicada.db.annotation.OriginName;
 import top.crossoverjie.cicada.db.annotation.PrimaryId;
+import top.crossoverjie.cicada.db.core.QueryDeadline;
 import top.crossoverjie.cicada.db.core.SqlSessionFactory;
 import top.crossoverjie.cicada.db.model.Model;
 import top.crossoverjie.cicada.db.reflect.Instance;
@@ -66,6 +67,7 @@ public class DBHandler extends SqlSessionFactory implements DBHandle {
             Statement statement = null;
             try {
                 statement = super.origin().getConnection().createStatement();
+                QueryDeadline.apply(statement);
                 log.debug("execute sql>>>>>{}", updateQuery.validate().toString());
                 return statement.executeUpdate(updateQuery.toString());
             } catch (SQLException e) {
@@ -105,6 +107,7 @@ public class DBHandler extends SqlSessionFactory implements DBHandle {
         PreparedStatement statement = null;
         try {
             statement = super.origin().getConnection().prepareStatement(insertSelectQuery.toString());
+            QueryDeadline.apply(statement);
             for (int i = 0; i < values.size(); i++) {
                 Field value = values.get(i);
                 if (value.getType() == Integer.class) {
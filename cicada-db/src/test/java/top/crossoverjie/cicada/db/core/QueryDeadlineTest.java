@@ -0,0 +1,57 @@
+package top.crossoverjie.cicada.db.core;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.context.Deadline;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryDeadlineTest {
+
+    private final AtomicInteger queryTimeout = new AtomicInteger(-1);
+
+    private final Statement statement = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+            new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                if ("setQueryTimeout".equals(method.getName())) {
+                    queryTimeout.set((Integer) args[0]);
+                }
+                return null;
+            });
+
+    @After
+    public void tearDown() {
+        CicadaContext.removeContext();
+    }
+
+    @Test
+    public void noDeadline() throws Exception {
+        QueryDeadline.apply(statement);
+        CicadaContext.setContext(new CicadaContext(null, null));
+        QueryDeadline.apply(statement);
+        Assert.assertEquals(-1, queryTimeout.get());
+    }
+
+    @Test
+    public void remainingSeconds() throws Exception {
+        CicadaContext context = new CicadaContext(null, null);
+        context.setDeadline(Deadline.after(1500, TimeUnit.MILLISECONDS));
+        CicadaContext.setContext(context);
+        QueryDeadline.apply(statement);
+        // 剩余时间向上取整到秒
+        Assert.assertEquals(2, queryTimeout.get());
+    }
+
+    @Test(expected = SQLTimeoutException.class)
+    public void expired() throws Exception {
+        CicadaContext context = new CicadaContext(null, null);
+        context.setDeadline(Deadline.after(0, TimeUnit.MILLISECONDS));
+        CicadaContext.setContext(context);
+        QueryDeadline.apply(statement);
+    }
+}
@@ -115,6 +115,15 @@ public class RouteAction {
     }
 
 
+    @CicadaRoute("user/{id}")
+    public WorkRes user(DemoReq req) {
+        WorkRes<DemoReq> reqWorkRes = new WorkRes<>();
+        reqWorkRes.setMessage("user id =" + CicadaContext.getRequest().getPathVariable("id"));
+        reqWorkRes.setDataBody(req);
+        return reqWorkRes;
+    }
+
+
     @CicadaRoute("test")
     public void test(CicadaContext context) {
         ExceptionHandle bean = CicadaBeanManager.getInstance().getBean(ExceptionHandle.class);
@@ -3,6 +3,11 @@ package top.crossoverjie.cicada.example.action;
 import top.crossoverjie.cicada.server.annotation.CicadaAction;
 import top.crossoverjie.cicada.server.annotation.CicadaRoute;
 import top.crossoverjie.cicada.server.context.CicadaContext;
+import top.crossoverjie.cicada.server.thread.ContextPropagation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Function:
@@ -31,4 +36,22 @@ public class TextAction  {
         String method = context.request().getMethod();
         context.text("hello world2 url=" + url + " method=" + method);
     }
+
+    /**
+     * the response is written when the future completes, no thread waits for it
+     */
+    @CicadaRoute("helloAsync")
+    public CompletionStage<String> helloAsync() {
+        String url = CicadaContext.getRequest().getUrl();
+        return CompletableFuture.supplyAsync(() -> "hello async url=" + url);
+    }
+
+    /**
+     * the request context is carried to the pool thread
+     */
+    @CicadaRoute("helloOffload")
+    public CompletionStage<String> helloOffload() {
+        return CompletableFuture.supplyAsync(() -> "hello offload url=" + CicadaContext.getRequest().getUrl(),
+                ContextPropagation.wrap(ForkJoinPool.commonPool()));
+    }
 }
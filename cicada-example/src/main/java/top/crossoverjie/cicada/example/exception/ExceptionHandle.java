@@ -21,9 +21,14 @@ public class ExceptionHandle implements GlobalHandelException {
 
     @Override
     public void resolveException(CicadaContext context, Exception e) {
+        // the dispatcher already set the status, 4xx are client errors and not worth a stack trace
+        int status = CicadaContext.getResponse().getStatus();
+        if (status < 500) {
+            return;
+        }
         LOGGER.error("Exception", e);
         WorkRes workRes = new WorkRes();
-        workRes.setCode("500");
+        workRes.setCode(String.valueOf(status));
         workRes.setMessage(e.getClass().getName() + "系统运行出现异常");
         context.json(workRes);
     }
@@ -14,26 +14,27 @@ import top.crossoverjie.cicada.server.intercept.CicadaInterceptor;
  *         Date: 2018/9/2 15:21
  * @since JDK 1.8
  */
-@Interceptor(order = 1)
+@Interceptor(order = 1, exclude = "/textAction/**")
 public class ExecuteTimeInterceptor extends CicadaInterceptor {
 
     private static final Logger LOGGER = LoggerBuilder.getLogger(ExecuteTimeInterceptor.class);
 
-    private Long start;
-
-    private Long end;
+    /**
+     * the interceptor is shared by concurrent requests, the start time belongs to the request
+     */
+    private static final String START = ExecuteTimeInterceptor.class.getName() + ".start";
 
     @Override
     public boolean before(CicadaContext context,Param param) {
-        start = System.currentTimeMillis();
+        context.setAttribute(START, System.currentTimeMillis());
         LOGGER.info("拦截请求");
         return true;
     }
 
     @Override
     public void after(CicadaContext context,Param param) {
-        end = System.currentTimeMillis();
+        long start = context.getAttribute(START);
 
-        LOGGER.info("cast [{}] times", end - start);
+        LOGGER.info("cast [{}] times", System.currentTimeMillis() - start);
     }
 }